@@ -30,7 +30,7 @@ public class AuthController {
     public ResponseEntity<AuthResponse> google(@RequestBody GoogleAuthRequest req) {
         var payload = googleTokenVerifier.verify(req.idToken());
         var user = authService.loginWithGoogle(payload);
-        var token = jwtService.issueToken(user.getId());
+        var token = jwtService.issueToken(user.getId(), user.getTimezone());
         return ResponseEntity.ok(new AuthResponse(
                 token,
                 user.getId(),
@@ -61,7 +61,7 @@ public class AuthController {
         try {
             GoogleUserPayload payload = googleTokenVerifier.exchangeCode(code);
             User user = authService.loginWithGoogle(payload);
-            String jwt = jwtService.issueToken(user.getId());
+            String jwt = jwtService.issueToken(user.getId(), user.getTimezone());
 
             response.sendRedirect(
                     "com.aditya1374.assignmentmanager://auth?token=" + jwt
@@ -2,7 +2,6 @@ package com.applicationplanner.api.auth;
 
 import com.applicationplanner.api.enums.AuthProvider;
 import com.applicationplanner.api.model.User;
-import com.applicationplanner.api.model.UserIdentity;
 import com.applicationplanner.api.record.GoogleUserPayload;
 import com.applicationplanner.api.repository.UserIdentityRepository;
 import com.applicationplanner.api.repository.UserRepository;
@@ -10,6 +9,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.OffsetDateTime;
+import java.util.UUID;
 
 @Service
 public class AuthService {
@@ -24,79 +24,45 @@ public class AuthService {
 
     @Transactional
     public User loginWithGoogle(GoogleUserPayload payload) {
-        var existing = identityRepository
-                .findByProviderAndProviderSubject(AuthProvider.GOOGLE, payload.subject());
-
-        if (existing.isPresent()) {
-            // Optional: update email/display name if changed
-            var user = existing.get().getUser();
-            if (payload.email() != null && !payload.email().equals(user.getEmail())) user.setEmail(payload.email());
-            if (payload.name() != null && !payload.name().equals(user.getDisplayName())) user.setDisplayName(payload.name());
-            return userRepository.save(user);
-        }
-
-        var now = OffsetDateTime.now();
-        var user = User.builder()
-                .email(payload.email())
-                .displayName(payload.name())
-                .createdAt(now)
-                .updatedAt(now)
-                .build();
-
-        user = userRepository.save(user);
-
-        var identity = UserIdentity.builder()
-                .user(user)
-                .provider(AuthProvider.GOOGLE)
-                .providerSubject(payload.subject())
-                .email(payload.email())
-                .build();
-
-        identityRepository.save(identity);
-
-        return user;
+        return login(AuthProvider.GOOGLE, payload.subject(), payload.email(), payload.name());
     }
 
     @Transactional
     public User loginDev(String email, String displayName) {
+        return login(AuthProvider.DEV, email, email, displayName);
+    }
 
-        var existing = identityRepository
-                .findByProviderAndProviderSubject(AuthProvider.DEV, email);
-
+    /**
+     * A returning user costs one join-fetch read, plus an update of just the changed columns
+     * if the provider reports a new email or name. A first login creates the user and links
+     * the identity with an insert-on-conflict, so two racing first logins end up on one user.
+     */
+    private User login(AuthProvider provider, String subject, String email, String displayName) {
+        var existing = identityRepository.findWithUser(provider, subject);
         if (existing.isPresent()) {
+            // Managed entity: dirty checking writes only if one of these actually changed
             var user = existing.get().getUser();
-
-            if (email != null && !email.equals(user.getEmail())) {
-                user.setEmail(email);
-            }
-
-            if (displayName != null && !displayName.equals(user.getDisplayName())) {
-                user.setDisplayName(displayName);
-            }
-
-            return userRepository.save(user);
+            if (email != null && !email.equals(user.getEmail())) user.setEmail(email);
+            if (displayName != null && !displayName.equals(user.getDisplayName())) user.setDisplayName(displayName);
+            return user;
         }
 
         var now = OffsetDateTime.now();
-
-        var user = User.builder()
+        var user = userRepository.save(User.builder()
                 .email(email)
                 .displayName(displayName)
                 .createdAt(now)
                 .updatedAt(now)
-                .build();
-
-        user = userRepository.save(user);
-
-        var identity = UserIdentity.builder()
-                .user(user)
-                .provider(AuthProvider.DEV)
-                .providerSubject(email)
-                .email(email)
-                .build();
+                .build());
 
-        identityRepository.save(identity);
+        int linked = identityRepository.insertIfAbsent(
+                UUID.randomUUID(), user.getId(), provider.name(), subject, email, now);
+        if (linked == 1) return user;
 
-        return user;
+        // Lost the race to a concurrent first login: drop our user and use theirs
+        userRepository.delete(user);
+        return identityRepository.findWithUser(provider, subject)
+                .orElseThrow(() -> new IllegalStateException("Identity vanished after conflicting insert"))
+                .getUser();
     }
-}
\ No newline at end of file
+}
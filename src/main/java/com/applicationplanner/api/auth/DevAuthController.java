@@ -32,7 +32,7 @@ public class DevAuthController {
                 : req.displayName().trim();
 
         var user = authService.loginDev(email, displayName);
-        var token = jwtService.issueToken(user.getId());
+        var token = jwtService.issueToken(user.getId(), user.getTimezone());
 
         return ResponseEntity.ok(new AuthResponse(
                 token,
@@ -0,0 +1,101 @@
+package com.applicationplanner.api.auth;
+
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
+import com.google.api.client.http.GenericUrl;
+import com.google.api.client.http.HttpHeaders;
+import com.google.api.client.http.HttpRequestFactory;
+import com.google.api.client.http.HttpResponse;
+import com.google.api.client.json.GenericJson;
+import com.google.api.client.json.JsonFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.PublicKey;
+import java.security.cert.CertificateFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Google's ID token signing certs, fetched through the caller's request factory so the
+ * configured timeouts bound this request like any other. GooglePublicKeysManager, which did
+ * this before, builds its request from the bare transport and can't be given timeouts.
+ *
+ * Keys are refetched once the max-age from the response's Cache-Control header (less its
+ * Age) is within five minutes of running out, as GooglePublicKeysManager did.
+ */
+class GoogleSigningKeys {
+
+    private static final long REFRESH_SKEW_MS = 300_000;
+    private static final Pattern MAX_AGE = Pattern.compile("\\s*max-age\\s*=\\s*(\\d+)\\s*");
+
+    private final HttpRequestFactory requests;
+    private final JsonFactory json;
+    private final GenericUrl certsUrl;
+
+    private List<PublicKey> keys = List.of();
+    private long expiresAtMs;
+
+    GoogleSigningKeys(HttpRequestFactory requests, JsonFactory json, String certsUrl) {
+        this.requests = requests;
+        this.json = json;
+        this.certsUrl = new GenericUrl(certsUrl);
+    }
+
+    /** True if one of the current signing keys produced the token's signature. */
+    boolean signed(GoogleIdToken token) throws GeneralSecurityException, IOException {
+        for (PublicKey key : current()) {
+            if (token.verifySignature(key)) return true;
+        }
+        return false;
+    }
+
+    private synchronized List<PublicKey> current() throws GeneralSecurityException, IOException {
+        if (keys.isEmpty() || System.currentTimeMillis() + REFRESH_SKEW_MS > expiresAtMs) {
+            refresh();
+        }
+        return keys;
+    }
+
+    private void refresh() throws GeneralSecurityException, IOException {
+        HttpResponse response = requests.buildGetRequest(certsUrl).execute();
+        long fetchedAtMs = System.currentTimeMillis();
+
+        GenericJson certs;
+        try {
+            certs = json.fromInputStream(response.getContent(), StandardCharsets.UTF_8, GenericJson.class);
+        } finally {
+            response.disconnect();
+        }
+
+        CertificateFactory x509 = CertificateFactory.getInstance("X.509");
+        List<PublicKey> parsed = new ArrayList<>();
+        for (Object pem : certs.values()) {
+            byte[] bytes = ((String) pem).getBytes(StandardCharsets.UTF_8);
+            parsed.add(x509.generateCertificate(new ByteArrayInputStream(bytes)).getPublicKey());
+        }
+
+        keys = List.copyOf(parsed);
+        expiresAtMs = fetchedAtMs + cacheSeconds(response.getHeaders()) * 1000;
+    }
+
+    private static long cacheSeconds(HttpHeaders headers) {
+        long maxAge = 0;
+        if (headers.getCacheControl() != null) {
+            for (String directive : headers.getCacheControl().split(",")) {
+                Matcher m = MAX_AGE.matcher(directive);
+                if (m.matches()) {
+                    maxAge = Long.parseLong(m.group(1));
+                    break;
+                }
+            }
+        }
+        if (headers.getAge() != null) {
+            maxAge -= headers.getAge();
+        }
+        return Math.max(0, maxAge);
+    }
+}
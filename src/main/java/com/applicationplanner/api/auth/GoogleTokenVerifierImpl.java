@@ -1,11 +1,13 @@
 package com.applicationplanner.api.auth;
 
 import com.applicationplanner.api.record.GoogleUserPayload;
+import com.google.api.client.auth.openidconnect.IdTokenVerifier;
 import com.google.api.client.googleapis.auth.oauth2.GoogleAuthorizationCodeTokenRequest;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
-import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
 import com.google.api.client.googleapis.auth.oauth2.GoogleTokenResponse;
+import com.google.api.client.http.HttpRequestInitializer;
 import com.google.api.client.http.javanet.NetHttpTransport;
+import com.google.api.client.json.JsonFactory;
 import com.google.api.client.json.jackson2.JacksonFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
@@ -17,7 +19,17 @@ import java.util.List;
 @Component
 public class GoogleTokenVerifierImpl implements GoogleTokenVerifier {
 
-    private final GoogleIdTokenVerifier verifier;
+    private static final JsonFactory JSON = JacksonFactory.getDefaultInstance();
+    private static final List<String> ISSUERS = List.of("accounts.google.com", "https://accounts.google.com");
+
+    // One transport for every call: HttpURLConnection keeps TLS connections to Google alive
+    // between logins, so a burst of sign-ins doesn't pay a cold handshake per user
+    private final NetHttpTransport transport = new NetHttpTransport();
+    private final HttpRequestInitializer timeouts;
+    private final String tokenUrl;
+
+    private final List<String> audiences;
+    private final GoogleSigningKeys signingKeys;
     private String webClientId;
     private String clientSecret;
     private String clientId;
@@ -29,7 +41,11 @@ public class GoogleTokenVerifierImpl implements GoogleTokenVerifier {
             @Value("${app.auth.google.client-secret}") String clientSecret,
             @Value("${app.auth.google.android-client-id}") String androidClientId,
             @Value("${app.auth.google.web-client-id}") String webClientId,
-            @Value("${app.auth.google.redirect-uri}") String redirectUri
+            @Value("${app.auth.google.redirect-uri}") String redirectUri,
+            @Value("${app.auth.google.token-url:https://oauth2.googleapis.com/token}") String tokenUrl,
+            @Value("${app.auth.google.certs-url:https://www.googleapis.com/oauth2/v1/certs}") String certsUrl,
+            @Value("${app.auth.google.connect-timeout-ms:5000}") int connectTimeoutMs,
+            @Value("${app.auth.google.read-timeout-ms:10000}") int readTimeoutMs
     ) {
 
         this.clientSecret = clientSecret;
@@ -37,25 +53,30 @@ public class GoogleTokenVerifierImpl implements GoogleTokenVerifier {
         this.clientId = clientIds.split(",")[0].trim();
         this.webClientId = webClientId;
         this.redirectUri = redirectUri;
+        this.tokenUrl = tokenUrl;
+        this.timeouts = request -> request
+                .setConnectTimeout(connectTimeoutMs)
+                .setReadTimeout(readTimeoutMs);
 
-        List<String> audiences = Arrays.stream(clientIds.split(","))
+        this.audiences = Arrays.stream(clientIds.split(","))
                 .map(String::trim)
                 .filter(s -> !s.isBlank())
                 .toList();
 
-        this.verifier = new GoogleIdTokenVerifier.Builder(
-                new NetHttpTransport(),
-                JacksonFactory.getDefaultInstance()
-        )
-                .setAudience(audiences)
-                .build();
+        // Holds Google's signing certs and refetches them only once the max-age from their
+        // Cache-Control header has run out
+        this.signingKeys = new GoogleSigningKeys(transport.createRequestFactory(timeouts), JSON, certsUrl);
     }
 
     @Override
     public GoogleUserPayload verify(String idToken) {
         try {
-            GoogleIdToken token = verifier.verify(idToken);
-            if (token == null) {
+            // The same checks GoogleIdTokenVerifier makes, against keys fetched with our timeouts
+            GoogleIdToken token = GoogleIdToken.parse(JSON, idToken);
+            if (!token.verifyIssuer(ISSUERS)
+                    || !token.verifyAudience(audiences)
+                    || !token.verifyTime(System.currentTimeMillis(), IdTokenVerifier.DEFAULT_TIME_SKEW_SECONDS)
+                    || !signingKeys.signed(token)) {
                 throw new IllegalArgumentException("Invalid Google ID token");
             }
 
@@ -78,13 +99,16 @@ public class GoogleTokenVerifierImpl implements GoogleTokenVerifier {
         //System.out.println("Using clientId: " + clientId);
         try {
             GoogleTokenResponse tokenResponse = new GoogleAuthorizationCodeTokenRequest(
-                    new NetHttpTransport(),
-                    JacksonFactory.getDefaultInstance(),
+                    transport,
+                    JSON,
+                    tokenUrl,
                     webClientId,
                     clientSecret,
                     code,
                     redirectUri
-            ).execute();
+            )
+                    .setRequestInitializer(timeouts)
+                    .execute();
 
             GoogleIdToken idToken = tokenResponse.parseIdToken();
             GoogleIdToken.Payload payload = idToken.getPayload();
@@ -0,0 +1,72 @@
+package com.applicationplanner.api.auth;
+
+import com.applicationplanner.api.record.TokenPrincipal;
+
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Tokens that already passed signature verification, keyed by their SHA-256 digest, with the
+ * principal and expiry read from them. Every authenticated request reads it, so it is a
+ * ConcurrentHashMap rather than a locked LRU map.
+ *
+ * An entry is served up to and including the token's own exp and dropped after it, the same
+ * instant the parser starts rejecting it, so caching never extends a token's life.
+ *
+ * The size bound is approximate: a put that finds the map over it sweeps out expired entries,
+ * then arbitrary ones down to 90% of the bound, so a full cache isn't swept on every put.
+ * Puts racing a sweep may overshoot it briefly.
+ */
+final class JwtPrincipalCache {
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private final int maxEntries;
+    private final int sweepTo;
+
+    JwtPrincipalCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.sweepTo = maxEntries - maxEntries / 10;
+    }
+
+    /** The principal of a verified, unexpired token with this digest, else null. */
+    TokenPrincipal get(String digest, Instant now) {
+        Entry e = entries.get(digest);
+        if (e == null) return null;
+        if (now.isAfter(e.expiresAt())) {
+            entries.remove(digest, e);
+            return null;
+        }
+        return e.principal();
+    }
+
+    void put(String digest, TokenPrincipal principal, Instant expiresAt, Instant now) {
+        entries.put(digest, new Entry(principal, expiresAt));
+        if (entries.size() > maxEntries && sweeping.compareAndSet(false, true)) {
+            try {
+                sweep(now);
+            } finally {
+                sweeping.set(false);
+            }
+        }
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private void sweep(Instant now) {
+        entries.values().removeIf(e -> now.isAfter(e.expiresAt()));
+
+        Iterator<String> it = entries.keySet().iterator();
+        while (entries.size() > sweepTo && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private record Entry(TokenPrincipal principal, Instant expiresAt) {}
+}
@@ -1,14 +1,22 @@
 package com.applicationplanner.api.auth;
 
+import com.applicationplanner.api.record.TokenPrincipal;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
 import java.time.Instant;
 import java.util.Date;
+import java.util.HexFormat;
 import java.util.UUID;
 import io.jsonwebtoken.io.DecodingException;
 import lombok.extern.slf4j.Slf4j;
@@ -17,13 +25,27 @@ import lombok.extern.slf4j.Slf4j;
 @Service
 public class JwtService {
 
+    // Lets TimezoneResolver work out the user's "today" without reading the users row
+    public static final String CLAIM_TIMEZONE = "tz";
+
     private final SecretKey key;
     private final long ttlSeconds;
+    private final Clock clock;
+
+    // Immutable and thread-safe once built, so one instance serves every request
+    private final JwtParser parser;
+    private final JwtPrincipalCache principals;
 
+    @Autowired
     public JwtService(
             @Value("${app.auth.jwt.secret}") String secret,
-            @Value("${app.auth.jwt.ttl-seconds}") long ttlSeconds
+            @Value("${app.auth.jwt.ttl-seconds}") long ttlSeconds,
+            @Value("${app.auth.jwt.principal-cache-size:10000}") int principalCacheSize
     ) {
+        this(secret, ttlSeconds, principalCacheSize, Clock.systemUTC());
+    }
+
+    JwtService(String secret, long ttlSeconds, int principalCacheSize, Clock clock) {
         //log.info("JWT ttlSeconds={}", ttlSeconds);
         if (secret == null || secret.isBlank()) {
             throw new IllegalStateException("JWT_SECRET is not set");
@@ -37,14 +59,26 @@ public class JwtService {
         }
         this.key = Keys.hmacShaKeyFor(keyBytes);
         this.ttlSeconds = ttlSeconds;
+        this.clock = clock;
+        this.parser = Jwts.parser()
+                .verifyWith(key)
+                .clock(() -> Date.from(clock.instant()))
+                .build();
+        this.principals = new JwtPrincipalCache(principalCacheSize);
     }
 
     public String issueToken(UUID userId) {
-        Instant now = Instant.now();
+        return issueToken(userId, null);
+    }
+
+    /** Issues a token that also carries the user's timezone, if known, as the "tz" claim. */
+    public String issueToken(UUID userId, String timezone) {
+        Instant now = clock.instant();
         Instant exp = now.plusSeconds(ttlSeconds);
 
         return Jwts.builder()
                 .subject(userId.toString())
+                .claim(CLAIM_TIMEZONE, timezone)
                 .issuedAt(Date.from(now))
                 .expiration(Date.from(exp))
                 .signWith(key)
@@ -52,13 +86,43 @@ public class JwtService {
     }
 
     public UUID parseUserId(String jwt) {
-        String sub = Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(jwt)
-                .getPayload()
-                .getSubject();
+        return parse(jwt).userId();
+    }
 
-        return UUID.fromString(sub);
+    /**
+     * Returns the token's user and timezone claim. A token seen before is answered from its
+     * digest until its exp; anything else goes through full signature and claims verification,
+     * which throws on an invalid or expired token exactly as before.
+     */
+    public TokenPrincipal parse(String jwt) {
+        String digest = digest(jwt);
+        Instant now = clock.instant();
+        TokenPrincipal cached = principals.get(digest, now);
+        if (cached != null) return cached;
+
+        Claims claims = parser.parseSignedClaims(jwt).getPayload();
+        TokenPrincipal principal = new TokenPrincipal(
+                UUID.fromString(claims.getSubject()),
+                claims.get(CLAIM_TIMEZONE, String.class)
+        );
+
+        // Tokens without an exp never expire on their own; keep verifying those in full
+        if (claims.getExpiration() != null) {
+            principals.put(digest, principal, claims.getExpiration().toInstant(), now);
+        }
+        return principal;
+    }
+
+    int cachedPrincipals() {
+        return principals.size();
+    }
+
+    private static String digest(String jwt) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(jwt.getBytes(StandardCharsets.US_ASCII));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
-}
\ No newline at end of file
+}
@@ -53,12 +53,26 @@ public class AssignmentController {
             @PathVariable UUID assignmentId,
             @RequestBody UpdateAssignmentRequest req) {
 
+        LocalDate today = timezoneResolver.resolveToday();
+        orchestrator.updateAssignmentAndPlan(assignmentId, toPatch(req), today);
+    }
+
+    /**
+     * Deletes an assignment and replans remaining assignments. by Claude
+     */
+    @DeleteMapping("/{assignmentId}")
+    public void delete(@PathVariable UUID assignmentId) {
+        LocalDate today = timezoneResolver.resolveToday();
+        orchestrator.removeAssignment(assignmentId, today);
+    }
+
+    // Shared with the batch endpoint so a batched patch is validated exactly like a PATCH
+    static Assignment toPatch(UpdateAssignmentRequest req) {
         if (req.startDate() != null && req.dueDate() != null &&
                 !req.startDate().isBefore(req.dueDate())) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "startDate must be before dueDate");
         }
 
-        LocalDate today = timezoneResolver.resolveToday();
         Assignment patch = new Assignment();
 
         if (req.title() != null) {
@@ -73,16 +87,6 @@ public class AssignmentController {
         }
         if (req.startDate() != null) patch.setStartDate(req.startDate());
         if (req.dueDate() != null) patch.setDueDate(req.dueDate());
-
-        orchestrator.updateAssignmentAndPlan(assignmentId, patch, today);
-    }
-
-    /**
-     * Deletes an assignment and replans remaining assignments. by Claude
-     */
-    @DeleteMapping("/{assignmentId}")
-    public void delete(@PathVariable UUID assignmentId) {
-        LocalDate today = timezoneResolver.resolveToday();
-        orchestrator.removeAssignment(assignmentId, today);
+        return patch;
     }
 }
\ No newline at end of file
@@ -30,7 +30,10 @@ public class AvailabilityController {
     @PutMapping
     public void setAvailability(@Valid @RequestBody AvailabilityRequest req) {
         LocalDate today = timezoneResolver.resolveToday();
+        orchestrator.setAvailabilityAndPlan(toAvailability(req), today);
+    }
 
+    static Availability toAvailability(AvailabilityRequest req) {
         Availability a = new Availability();
         a.setMonHours(req.monHours());
         a.setTueHours(req.tueHours());
@@ -39,7 +42,6 @@ public class AvailabilityController {
         a.setFriHours(req.friHours());
         a.setSatHours(req.satHours());
         a.setSunHours(req.sunHours());
-
-        orchestrator.setAvailabilityAndPlan(a, today);
+        return a;
     }
 }
\ No newline at end of file
@@ -1,65 +1,134 @@
 package com.applicationplanner.api.controller;
 
+import com.applicationplanner.api.dto.requestDTO.PlanBatchOperation;
+import com.applicationplanner.api.dto.requestDTO.PlanBatchRequest;
 import com.applicationplanner.api.dto.responseDTO.PlanViewResponse;
-import com.applicationplanner.api.dto.responseDTO.TaskViewResponse;
-import com.applicationplanner.api.model.Task;
+import com.applicationplanner.api.dto.responseDTO.PlanChangesResponse;
+import com.applicationplanner.api.mapper.PlanViewMapper;
+import com.applicationplanner.api.planner.PlanViewCache;
 import com.applicationplanner.api.record.AssignmentPlanView;
+import com.applicationplanner.api.record.PlanEdit;
+import com.applicationplanner.api.record.PlanSnapshot;
+import com.applicationplanner.api.security.CurrentUser;
 import com.applicationplanner.api.service.PlanningOrchestratorService;
 import com.applicationplanner.api.util.TimezoneResolver;
+import jakarta.validation.Valid;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.time.LocalDate;
-import java.util.Comparator;
 import java.util.List;
+import java.util.UUID;
 
 @RestController
 public class PlanController {
 
     private final PlanningOrchestratorService orchestrator;
     private final TimezoneResolver timezoneResolver;
+    private final PlanViewCache planViewCache;
 
     public PlanController(PlanningOrchestratorService orchestrator,
-    TimezoneResolver timezoneResolver)
+    TimezoneResolver timezoneResolver,
+    PlanViewCache planViewCache)
     {
         this.orchestrator = orchestrator;
         this.timezoneResolver = timezoneResolver;
+        this.planViewCache = planViewCache;
     }
 
+    /**
+     * Returns the plan with a strong ETag of the user's plan revision and today's date (panic
+     * status depends on the day). A matching If-None-Match gets a 304 with no body, decided
+     * from the revision alone before any plan rows are read.
+     */
     @GetMapping("/plan")
-    public List<PlanViewResponse> getPlan() {
+    public ResponseEntity<List<PlanViewResponse>> getPlan(WebRequest request) {
         LocalDate today = timezoneResolver.resolveToday();
+        UUID userId = CurrentUser.requireUserId();
 
-        List<AssignmentPlanView> views = orchestrator.getPlanView(today);
+        // The persisted revision, not anything local, decides whether the cached body is current
+        long revision = orchestrator.getPlanRevision();
+        if (request.checkNotModified(etag(revision, today))) {
+            return null; // 304 and the ETag header are already set on the response
+        }
 
-        // Optional: keep UI predictable. Frontend stored newest first on add, but global planning sorts by dueDate.
-        // Here we sort by dueDate to make the response stable.
+        PlanViewCache.CachedPlan plan = planViewCache.get(userId, revision, today);
+        if (plan == null) {
+            PlanSnapshot snapshot = orchestrator.getPlanSnapshot(today);
+            plan = new PlanViewCache.CachedPlan(snapshot.revision(), toResponses(snapshot.views()));
+            planViewCache.put(userId, today, plan);
+        }
+
+        return ResponseEntity.ok()
+                .eTag(etag(plan.revision(), today))
+                .body(plan.views());
+    }
+
+    private static String etag(long revision, LocalDate today) {
+        return "\"r" + revision + "-" + today + "\"";
+    }
+
+    private static List<PlanViewResponse> toResponses(List<AssignmentPlanView> views) {
+        // Views already come in planning order (dueDate, then creation), which is what the UI shows
         return views.stream()
-                .sorted(Comparator.comparing(v -> v.assignment().getDueDate()))
-                .map(v -> new PlanViewResponse(
-                        v.assignment().getId(),
-                        v.assignment().getTitle(),
-                        v.assignment().getSubject(),
-                        v.assignment().getStartDate() != null ? v.assignment().getStartDate().toString() : null,
-                        v.assignment().getDueDate().toString(),
-                        v.assignment().getPlanningDays(),
-                        v.panicStatus(),
-                        v.tasks().stream()
-                                .sorted(Comparator.comparingInt(Task::getOrderIndex))
-                                .map(t -> new TaskViewResponse(
-                                        t.getId(),
-                                        t.getAssignmentId(),
-                                        t.getTitle(),
-                                        t.isDone(),
-                                        t.getTargetDate() == null ? "" : t.getTargetDate().toString(),
-                                        t.getEffortHours(),
-                                        t.getOrderIndex(),
-                                        t.isUnscheduled(),
-                                        t.getUnscheduledReason()
-                                ))
-                                .toList(),
-                        v.hoursConsumedByEarlierAssignments()
-                ))
+                .map(PlanViewMapper::toResponse)
                 .toList();
     }
+
+    /**
+     * Assignments and tasks that changed after the client's revision, plus deleted ids.
+     * Summaries depend on the day too, so clients should reload GET /plan when their date
+     * rolls over; when the log can't answer, fullReloadRequired is set instead.
+     */
+    @GetMapping("/plan/changes")
+    public PlanChangesResponse getChanges(@RequestParam long since) {
+        LocalDate today = timezoneResolver.resolveToday();
+        return PlanViewMapper.toResponse(orchestrator.getPlanChanges(since, today));
+    }
+
+    /**
+     * Applies an ordered list of task/assignment/availability edits in one transaction and
+     * replans once at the end. Meant for offline-sync bursts from the app; if any edit fails
+     * (unknown task, bad dates) nothing in the batch is persisted.
+     */
+    @PostMapping("/plan/batch")
+    public void applyBatch(@Valid @RequestBody PlanBatchRequest req) {
+        List<PlanEdit> edits = req.operations().stream()
+                .map(PlanController::toEdit)
+                .toList();
+
+        LocalDate today = timezoneResolver.resolveToday();
+        orchestrator.applyBatchAndPlan(edits, today);
+    }
+
+    private static PlanEdit toEdit(PlanBatchOperation op) {
+        return switch (op.type()) {
+            case TOGGLE -> new PlanEdit.ToggleTask(
+                    required(op.assignmentId(), "assignmentId"),
+                    required(op.taskId(), "taskId"));
+            case EFFORT -> new PlanEdit.TaskEffort(
+                    required(op.assignmentId(), "assignmentId"),
+                    required(op.taskId(), "taskId"),
+                    required(op.effortHours(), "effortHours"));
+            case TITLE -> new PlanEdit.TaskTitle(
+                    required(op.assignmentId(), "assignmentId"),
+                    required(op.taskId(), "taskId"),
+                    required(op.title(), "title"));
+            case ASSIGNMENT -> new PlanEdit.AssignmentPatch(
+                    required(op.assignmentId(), "assignmentId"),
+                    AssignmentController.toPatch(required(op.assignment(), "assignment")));
+            case AVAILABILITY -> new PlanEdit.AvailabilityChange(
+                    AvailabilityController.toAvailability(required(op.availability(), "availability")));
+        };
+    }
+
+    private static <T> T required(T value, String field) {
+        if (value == null) throw new IllegalArgumentException(field + " is required");
+        return value;
+    }
 }
\ No newline at end of file
@@ -1,15 +1,19 @@
 package com.applicationplanner.api.controller;
 
+import com.applicationplanner.api.auth.JwtService;
 import com.applicationplanner.api.dto.requestDTO.UpdateProfileRequest;
 import com.applicationplanner.api.dto.responseDTO.UserProfileResponse;
 import com.applicationplanner.api.model.User;
+import com.applicationplanner.api.planner.UserPlanningContext;
 import com.applicationplanner.api.repository.UserRepository;
 import com.applicationplanner.api.security.CurrentUser;
+import com.applicationplanner.api.util.TimezoneResolver;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Instant;
 import java.time.ZoneId;
 import java.util.UUID;
 
@@ -18,9 +22,16 @@ import java.util.UUID;
 public class UserController {
 
     private final UserRepository userRepository;
+    private final TimezoneResolver timezoneResolver;
+    private final UserPlanningContext context;
+    private final JwtService jwtService;
 
-    public UserController(UserRepository userRepository) {
+    public UserController(UserRepository userRepository, TimezoneResolver timezoneResolver,
+                          UserPlanningContext context, JwtService jwtService) {
         this.userRepository = userRepository;
+        this.timezoneResolver = timezoneResolver;
+        this.context = context;
+        this.jwtService = jwtService;
     }
 
     /**
@@ -28,19 +39,21 @@ public class UserController {
      */
     @GetMapping("/me")
     public UserProfileResponse getMe() {
-        UUID userId = CurrentUser.requireUserId();
-        User user = requireUser(userId);
-        return toResponse(user);
+        User user = requireUser();
+        return toResponse(user, null);
     }
 
     /**
      * Updates the current authenticated user's profile fields.
      * Only non-null fields in the request body are updated. By Claude
+     *
+     * A timezone change also returns a new token carrying it: every instance trusts the
+     * token's "tz" claim, so the old token would keep the old timezone until it expires.
      */
     @PatchMapping("/me")
     public UserProfileResponse updateMe(@Valid @RequestBody UpdateProfileRequest req) {
         UUID userId = CurrentUser.requireUserId();
-        User user = requireUser(userId);
+        User user = requireUser();
 
         if (req.displayName() != null) {
             String name = req.displayName().trim();
@@ -67,14 +80,22 @@ public class UserController {
         if (req.dueDateWarningDaysBefore() != null) user.setDueDateWarningDaysBefore(req.dueDateWarningDaysBefore());
         if (req.atRiskAlertEnabled() != null) user.setAtRiskAlertEnabled(req.atRiskAlertEnabled());
 
-        userRepository.save(user);
-        return toResponse(user);
+        if (req.timezone() != null || req.dailyReminderTime() != null
+                || req.notificationsEnabled() != null || req.dailyReminderEnabled() != null) {
+            user.rescheduleDailyReminder(Instant.now());
+        }
+
+        context.userSaved(userRepository.save(user));
+        if (req.timezone() == null) return toResponse(user, null);
+
+        timezoneResolver.timezoneChanged(userId, user.getTimezone());
+        return toResponse(user, jwtService.issueToken(userId, user.getTimezone()));
     }
 
     /**
      * Converts a User entity to a UserProfileResponse DTO. by Claude
      */
-    private UserProfileResponse toResponse(User user) {
+    private UserProfileResponse toResponse(User user, String token) {
         return new UserProfileResponse(
                 user.getId(),
                 user.getEmail(),
@@ -88,7 +109,8 @@ public class UserController {
                 user.getDailyReminderTime(),
                 user.isDueDateWarningEnabled(),
                 user.getDueDateWarningDaysBefore(),
-                user.isAtRiskAlertEnabled()
+                user.isAtRiskAlertEnabled(),
+                token
         );
     }
 
@@ -98,16 +120,15 @@ public class UserController {
     @DeleteMapping("/me")
     @ResponseStatus(HttpStatus.NO_CONTENT)
     public void deleteMe() {
-        UUID userId = CurrentUser.requireUserId();
-        User user = requireUser(userId);
+        User user = requireUser();
         userRepository.delete(user);
     }
 
     /**
-     * Fetches the user by ID or throws 404. by Claude
+     * Fetches the current user or throws 404. by Claude
      */
-    private User requireUser(UUID userId) {
-        return userRepository.findById(userId)
+    private User requireUser() {
+        return context.user()
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
     }
 }
\ No newline at end of file
@@ -0,0 +1,20 @@
+package com.applicationplanner.api.dto.requestDTO;
+
+import com.applicationplanner.api.enums.PlanEditType;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.UUID;
+
+// Which fields are required depends on the type; see PlanController#toEdit
+public record PlanBatchOperation(
+        @NotNull PlanEditType type,
+        UUID assignmentId,                       // TOGGLE, EFFORT, TITLE, ASSIGNMENT
+        UUID taskId,                             // TOGGLE, EFFORT, TITLE
+        @Min(0) @Max(24) Integer effortHours,    // EFFORT
+        String title,                            // TITLE
+        @Valid UpdateAssignmentRequest assignment,   // ASSIGNMENT
+        @Valid AvailabilityRequest availability      // AVAILABILITY
+) {}
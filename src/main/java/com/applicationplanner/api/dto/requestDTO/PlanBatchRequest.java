@@ -0,0 +1,13 @@
+package com.applicationplanner.api.dto.requestDTO;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record PlanBatchRequest(
+        @NotEmpty @Size(max = 500)
+        List<@NotNull @Valid PlanBatchOperation> operations    // applied in order
+) {}
@@ -0,0 +1,17 @@
+package com.applicationplanner.api.dto.responseDTO;
+
+import com.applicationplanner.api.enums.PanicStatus;
+
+import java.util.UUID;
+
+// PlanViewResponse without its task list; used by GET /plan/changes
+public record AssignmentSummaryResponse(
+        UUID assignmentId,
+        String title,
+        String subject,
+        String startDate,
+        String dueDate,          // YYYY-MM-DD
+        int planningDays,
+        PanicStatus panicStatus,
+        int hoursConsumedByEarlierAssignments
+) {}
@@ -0,0 +1,13 @@
+package com.applicationplanner.api.dto.responseDTO;
+
+import java.util.List;
+import java.util.UUID;
+
+public record PlanChangesResponse(
+        long revision,                                 // pass back as ?since= next time
+        boolean fullReloadRequired,                    // since is unknown or too old: GET /plan instead
+        List<AssignmentSummaryResponse> assignments,
+        List<TaskViewResponse> tasks,
+        List<UUID> deletedAssignmentIds,
+        List<UUID> deletedTaskIds
+) {}
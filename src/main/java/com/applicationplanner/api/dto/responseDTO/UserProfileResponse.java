@@ -1,5 +1,7 @@
 package com.applicationplanner.api.dto.responseDTO;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.time.OffsetDateTime;
 import java.util.UUID;
 
@@ -17,5 +19,7 @@ public record UserProfileResponse(
         String dailyReminderTime,
         boolean dueDateWarningEnabled,
         int dueDateWarningDaysBefore,
-        boolean atRiskAlertEnabled
+        boolean atRiskAlertEnabled,
+        // Set only when the timezone changed: a fresh token carrying it, for the client to switch to
+        @JsonInclude(JsonInclude.Include.NON_NULL) String token
 ) {}
\ No newline at end of file
@@ -0,0 +1,6 @@
+package com.applicationplanner.api.enums;
+
+public enum OutboxStatus {
+    PENDING,   // waiting for its next attempt
+    DEAD       // gave up after the maximum number of attempts
+}
@@ -0,0 +1,6 @@
+package com.applicationplanner.api.enums;
+
+public enum PlanChangeType {
+    ASSIGNMENT,
+    TASK
+}
\ No newline at end of file
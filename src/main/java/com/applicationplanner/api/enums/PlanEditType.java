@@ -0,0 +1,9 @@
+package com.applicationplanner.api.enums;
+
+public enum PlanEditType {
+    TOGGLE,
+    EFFORT,
+    TITLE,
+    ASSIGNMENT,
+    AVAILABILITY
+}
\ No newline at end of file
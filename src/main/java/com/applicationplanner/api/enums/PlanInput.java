@@ -0,0 +1,13 @@
+package com.applicationplanner.api.enums;
+
+/**
+ * Planner inputs a mutation can touch. An edit that touches none of them
+ * (e.g. renaming a task) cannot change the plan, so it skips the replan.
+ */
+public enum PlanInput {
+    EFFORT,
+    DONE_FLAG,
+    DUE_DATE,
+    START_DATE,
+    AVAILABILITY
+}
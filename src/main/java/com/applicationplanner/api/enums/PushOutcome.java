@@ -0,0 +1,7 @@
+package com.applicationplanner.api.enums;
+
+public enum PushOutcome {
+    DELIVERED,    // FCM accepted the message
+    RETRY,        // transient or unknown failure; worth another attempt
+    TOKEN_DEAD    // FCM says the token will never work again (UNREGISTERED / INVALID_ARGUMENT)
+}
@@ -0,0 +1,78 @@
+package com.applicationplanner.api.mapper;
+
+import com.applicationplanner.api.dto.responseDTO.AssignmentSummaryResponse;
+import com.applicationplanner.api.dto.responseDTO.PlanChangesResponse;
+import com.applicationplanner.api.dto.responseDTO.PlanViewResponse;
+import com.applicationplanner.api.dto.responseDTO.TaskViewResponse;
+import com.applicationplanner.api.model.Assignment;
+import com.applicationplanner.api.model.Task;
+import com.applicationplanner.api.record.AssignmentPlanView;
+import com.applicationplanner.api.record.PlanDelta;
+
+import java.util.List;
+
+public class PlanViewMapper {
+
+    public static PlanViewResponse toResponse(AssignmentPlanView v) {
+        Assignment a = v.assignment();
+        return new PlanViewResponse(
+                a.getId(),
+                a.getTitle(),
+                a.getSubject(),
+                a.getStartDate() != null ? a.getStartDate().toString() : null,
+                a.getDueDate().toString(),
+                a.getPlanningDays(),
+                v.panicStatus(),
+                // already in orderIndex order (PlanningSnapshot)
+                v.tasks().stream()
+                        .map(PlanViewMapper::toResponse)
+                        .toList(),
+                v.hoursConsumedByEarlierAssignments()
+        );
+    }
+
+    public static AssignmentSummaryResponse toSummary(AssignmentPlanView v) {
+        Assignment a = v.assignment();
+        return new AssignmentSummaryResponse(
+                a.getId(),
+                a.getTitle(),
+                a.getSubject(),
+                a.getStartDate() != null ? a.getStartDate().toString() : null,
+                a.getDueDate().toString(),
+                a.getPlanningDays(),
+                v.panicStatus(),
+                v.hoursConsumedByEarlierAssignments()
+        );
+    }
+
+    public static TaskViewResponse toResponse(Task t) {
+        return new TaskViewResponse(
+                t.getId(),
+                t.getAssignmentId(),
+                t.getTitle(),
+                t.isDone(),
+                t.getTargetDate() == null ? "" : t.getTargetDate().toString(),
+                t.getEffortHours(),
+                t.getOrderIndex(),
+                t.isUnscheduled(),
+                t.getUnscheduledReason()
+        );
+    }
+
+    public static PlanChangesResponse toResponse(PlanDelta d) {
+        List<AssignmentSummaryResponse> assignments = d.assignments().stream()
+                .map(PlanViewMapper::toSummary)
+                .toList();
+        List<TaskViewResponse> tasks = d.tasks().stream()
+                .map(PlanViewMapper::toResponse)
+                .toList();
+        return new PlanChangesResponse(
+                d.revision(),
+                d.full(),
+                assignments,
+                tasks,
+                d.deletedAssignmentIds(),
+                d.deletedTaskIds()
+        );
+    }
+}
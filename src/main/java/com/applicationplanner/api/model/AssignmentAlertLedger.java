@@ -0,0 +1,58 @@
+package com.applicationplanner.api.model;
+
+import com.applicationplanner.api.enums.PanicStatus;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * What the at-risk job last worked out for one assignment. The status is reused while the
+ * user's plan revision and local date are unchanged; a push goes out only when the status
+ * differs from notifiedStatus or the cool-down since notifiedAt has passed.
+ */
+@Entity
+@Table(name = "assignment_alert_ledger")
+@Getter @Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class AssignmentAlertLedger {
+
+    @Id
+    @Column(name = "id", nullable = false, updatable = false)
+    private UUID id;
+
+    @Column(name = "assignment_id", nullable = false, updatable = false, unique = true)
+    private UUID assignmentId;
+
+    @Column(name = "user_id", nullable = false, updatable = false)
+    private UUID userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private PanicStatus status;
+
+    // users.plan_revision when status was computed
+    @Column(name = "evaluated_revision", nullable = false)
+    private long evaluatedRevision;
+
+    // the user's local date when status was computed
+    @Column(name = "evaluated_on", nullable = false)
+    private LocalDate evaluatedOn;
+
+    // null once the assignment is back ON_TRACK, so a relapse counts as a transition
+    @Enumerated(EnumType.STRING)
+    @Column(name = "notified_status", length = 16)
+    private PanicStatus notifiedStatus;
+
+    @Column(name = "notified_at")
+    private Instant notifiedAt;
+
+    @PrePersist
+    void onCreate() {
+        if (id == null) id = UUID.randomUUID();
+    }
+}
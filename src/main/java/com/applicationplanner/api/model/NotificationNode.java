@@ -0,0 +1,23 @@
+package com.applicationplanner.api.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/** One running instance taking part in notification shard leasing. */
+@Entity
+@Table(name = "notification_nodes")
+@Getter @Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NotificationNode {
+
+    @Id
+    @Column(name = "node_id", nullable = false, updatable = false, length = 128)
+    private String nodeId;
+
+    @Column(name = "heartbeat_at", nullable = false)
+    private Instant heartbeatAt;
+}
@@ -0,0 +1,29 @@
+package com.applicationplanner.api.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Ownership of one NotificationShards partition. Free when owner is null or leaseUntil
+ * has passed; the owner keeps pushing leaseUntil forward while it is alive.
+ */
+@Entity
+@Table(name = "notification_shard_leases")
+@Getter @Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NotificationShardLease {
+
+    @Id
+    @Column(name = "shard", nullable = false, updatable = false)
+    private Integer shard;
+
+    @Column(name = "owner", length = 128)
+    private String owner;
+
+    @Column(name = "lease_until")
+    private Instant leaseUntil;
+}
@@ -0,0 +1,45 @@
+package com.applicationplanner.api.model;
+
+import com.applicationplanner.api.enums.PlanChangeType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.UUID;
+
+/**
+ * One assignment or task touched by a plan mutation, stamped with the plan revision that
+ * mutation produced. GET /plan/changes replays these to send clients only what moved.
+ */
+@Entity
+@Table(name = "plan_changes")
+@Getter @Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PlanChange {
+
+    @Id
+    @Column(name = "id", nullable = false, updatable = false)
+    private UUID id;
+
+    @Column(name = "user_id", nullable = false, updatable = false)
+    private UUID userId;
+
+    @Column(name = "revision", nullable = false, updatable = false)
+    private long revision;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entity_type", nullable = false, length = 16, updatable = false)
+    private PlanChangeType entityType;
+
+    @Column(name = "entity_id", nullable = false, updatable = false)
+    private UUID entityId;
+
+    @Column(name = "deleted", nullable = false, updatable = false)
+    private boolean deleted;
+
+    @PrePersist
+    void onCreate() {
+        if (id == null) id = UUID.randomUUID();
+    }
+}
\ No newline at end of file
@@ -1,13 +1,21 @@
 package com.applicationplanner.api.model;
 
+import com.applicationplanner.api.util.NotificationShards;
+import com.applicationplanner.api.util.TimezoneUtil;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
+import org.hibernate.annotations.DynamicUpdate;
 
+import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.util.UUID;
 
+// Updates write only the changed columns, so a login refreshing the name can't overwrite a
+// concurrent profile or plan-revision write with the stale values it loaded
 @Entity
 @Table(name = "users")
+@DynamicUpdate
 @Getter @Setter
 @NoArgsConstructor
 @AllArgsConstructor
@@ -65,16 +73,48 @@ public class User {
     @Column(name = "at_risk_alert_enabled", nullable = false)
     private boolean atRiskAlertEnabled = true;
 
+    // Next daily reminder as a UTC instant, so the minute tick only reads users that are due.
+    // Null while daily reminders are off; kept current by rescheduleDailyReminder.
+    @Column(name = "daily_reminder_next_fire_at")
+    private Instant dailyReminderNextFireAt;
+
+    // Which NotificationShards partition this user's notifications run in; fixed at insert
+    @Column(name = "notification_shard", nullable = false, updatable = false)
+    private int notificationShard;
+
+    // Only ever written by UserRepository#incrementPlanRevision; never flushed from the entity,
+    // so saving a User loaded earlier in the request can't roll the revision back.
+    @ColumnDefault("0")
+    @Column(name = "plan_revision", nullable = false, insertable = false, updatable = false)
+    private long planRevision;
+
+    // Plan revisions after this one have a complete plan_changes log; see UserRepository#raisePlanChangesFloor
+    @ColumnDefault("0")
+    @Column(name = "plan_changes_floor", nullable = false, insertable = false, updatable = false)
+    private long planChangesFloor;
+
     @PrePersist
     void onCreate() {
         if (id == null) id = UUID.randomUUID();
+        notificationShard = NotificationShards.of(id);
         var now = OffsetDateTime.now();
         if (createdAt == null) createdAt = now;
         if (updatedAt == null) updatedAt = now;
+        if (dailyReminderNextFireAt == null) rescheduleDailyReminder(now.toInstant());
     }
 
     @PreUpdate
     void onUpdate() {
         updatedAt = OffsetDateTime.now();
     }
-}
\ No newline at end of file
+
+    /**
+     * Recomputes the next daily reminder after {@code after} from the current timezone,
+     * reminder time and notification switches. Call whenever any of those change.
+     */
+    public void rescheduleDailyReminder(Instant after) {
+        dailyReminderNextFireAt = notificationsEnabled && dailyReminderEnabled
+                ? TimezoneUtil.nextOccurrenceAfter(dailyReminderTime, timezone, after)
+                : null;
+    }
+}
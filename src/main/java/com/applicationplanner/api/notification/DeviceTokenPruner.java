@@ -0,0 +1,66 @@
+package com.applicationplanner.api.notification;
+
+import com.applicationplanner.api.repository.DeviceTokenRepository;
+import com.applicationplanner.api.repository.OutboxNotificationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Removes device tokens FCM reported as permanently dead, along with anything still queued
+ * for them, so later fan-outs stop paying for doomed requests. Keeps running totals for
+ * monitoring; they are logged on every prune.
+ */
+@Slf4j
+@Component
+public class DeviceTokenPruner {
+
+    private final DeviceTokenRepository deviceTokenRepository;
+    private final OutboxNotificationRepository outboxRepository;
+
+    private final AtomicLong tokensReported = new AtomicLong();
+    private final AtomicLong tokensRemoved = new AtomicLong();
+    private final AtomicLong queuedDropped = new AtomicLong();
+
+    public DeviceTokenPruner(
+            DeviceTokenRepository deviceTokenRepository,
+            OutboxNotificationRepository outboxRepository
+    ) {
+        this.deviceTokenRepository = deviceTokenRepository;
+        this.outboxRepository = outboxRepository;
+    }
+
+    /** Deletes the tokens in one statement each for device_tokens and the outbox. */
+    @Transactional
+    public void prune(Collection<String> deadTokens) {
+        if (deadTokens.isEmpty()) return;
+
+        int removed = deviceTokenRepository.deleteAllByTokenIn(deadTokens);
+        int dropped = outboxRepository.deletePendingForTokens(deadTokens);
+
+        long reportedTotal = tokensReported.addAndGet(deadTokens.size());
+        long removedTotal = tokensRemoved.addAndGet(removed);
+        queuedDropped.addAndGet(dropped);
+
+        log.info("Pruned {} dead FCM tokens ({} reported, {} queued pushes dropped); totals: {} removed of {} reported",
+                removed, deadTokens.size(), dropped, removedTotal, reportedTotal);
+    }
+
+    /** Dead tokens FCM has reported since startup, including ones already gone from the table. */
+    public long tokensReported() {
+        return tokensReported.get();
+    }
+
+    /** device_tokens rows deleted since startup. */
+    public long tokensRemoved() {
+        return tokensRemoved.get();
+    }
+
+    /** Pending outbox rows dropped because their token died, since startup. */
+    public long queuedDropped() {
+        return queuedDropped.get();
+    }
+}
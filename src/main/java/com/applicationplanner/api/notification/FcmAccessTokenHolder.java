@@ -0,0 +1,96 @@
+package com.applicationplanner.api.notification;
+
+import com.google.auth.oauth2.AccessToken;
+import com.google.auth.oauth2.GoogleCredentials;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Caches the FCM OAuth access token so sends don't go through the credentials' own locking.
+ * Sends read the cached token with a plain volatile read; a background tick replaces it
+ * shortly before it expires. If that refresh fails, the old token keeps being served until
+ * it actually expires, and only then does a send block on a refresh.
+ */
+@Slf4j
+@Component
+public class FcmAccessTokenHolder {
+
+    // Refresh this long before expiry, well ahead of Google's own ~5 minute early-expiry window
+    static final Duration REFRESH_AHEAD = Duration.ofMinutes(10);
+
+    private final GoogleCredentials googleCredentials;
+    private final Clock clock;
+
+    private volatile AccessToken current;
+
+    @Autowired
+    public FcmAccessTokenHolder(GoogleCredentials googleCredentials) {
+        this(googleCredentials, Clock.systemUTC());
+    }
+
+    FcmAccessTokenHolder(GoogleCredentials googleCredentials, Clock clock) {
+        this.googleCredentials = googleCredentials;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns a token that is valid now. Lock-free unless no token has been fetched yet
+     * or the cached one has already expired.
+     */
+    public String accessToken() throws IOException {
+        AccessToken token = current;
+        if (token != null && !expiresWithin(token, Duration.ZERO)) {
+            return token.getTokenValue();
+        }
+        return refresh(Duration.ZERO).getTokenValue();
+    }
+
+    /**
+     * Renews the token once it is within {@link #REFRESH_AHEAD} of expiry. Does nothing until
+     * the first send has fetched a token, so environments that never push stay quiet.
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void refreshAhead() {
+        AccessToken token = current;
+        if (token == null || !expiresWithin(token, REFRESH_AHEAD)) return;
+
+        try {
+            refresh(REFRESH_AHEAD);
+        } catch (Exception e) {
+            log.warn("FCM access token refresh failed; using the cached token until {}", token.getExpirationTime(), e);
+        }
+    }
+
+    // Re-checks under the lock so concurrent callers share one refresh
+    private synchronized AccessToken refresh(Duration margin) throws IOException {
+        AccessToken token = current;
+        if (token != null && !expiresWithin(token, margin)) return token;
+
+        // Credentials built with a token already in hand don't need a round trip
+        AccessToken held = googleCredentials.getAccessToken();
+        if (held != null && held != token && !expiresWithin(held, margin)) {
+            current = held;
+            return held;
+        }
+
+        googleCredentials.refresh();
+        AccessToken fresh = googleCredentials.getAccessToken();
+        if (fresh == null) throw new IOException("Credentials returned no FCM access token");
+
+        current = fresh;
+        return fresh;
+    }
+
+    private boolean expiresWithin(AccessToken token, Duration margin) {
+        // Tokens without an expiry are treated as never expiring
+        if (token.getExpirationTime() == null) return false;
+        return !Instant.now(clock).plus(margin).isBefore(token.getExpirationTime().toInstant());
+    }
+}
@@ -1,83 +1,186 @@
 package com.applicationplanner.api.notification;
 
+import com.applicationplanner.api.enums.PushOutcome;
+import com.applicationplanner.api.record.PushDispatchResult;
+import com.applicationplanner.api.record.PushMessage;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.google.auth.oauth2.GoogleCredentials;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.io.IOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
 
 @Slf4j
 @Service
 public class FcmService {
 
-    private final GoogleCredentials googleCredentials;
+    private static final Duration REQUEST_TIMEOUT = Duration.ofSeconds(10);
+
+    // FCM error codes meaning the token itself is gone or malformed, so retrying can't help
+    private static final Set<String> DEAD_TOKEN_ERRORS = Set.of("UNREGISTERED", "INVALID_ARGUMENT");
+
+    private final FcmAccessTokenHolder accessTokens;
     private final ObjectMapper objectMapper;
-    private final String projectId;
+    private final String sendUrl;
     private final HttpClient httpClient;
 
+    // Caps requests in flight across all callers; a sender blocks here once FCM falls behind
+    private final Semaphore inFlight;
+
+    @Autowired
     public FcmService(
-            GoogleCredentials googleCredentials,
+            FcmAccessTokenHolder accessTokens,
+            ObjectMapper objectMapper,
+            @Value("${app.firebase.project-id}") String projectId,
+            @Value("${app.firebase.fcm-base-url:https://fcm.googleapis.com}") String baseUrl,
+            @Value("${app.firebase.max-in-flight:32}") int maxInFlight
+    ) {
+        this(accessTokens, objectMapper, projectId, baseUrl, maxInFlight,
+                HttpClient.newBuilder().connectTimeout(REQUEST_TIMEOUT).build());
+    }
+
+    FcmService(
+            FcmAccessTokenHolder accessTokens,
             ObjectMapper objectMapper,
-            @Value("${app.firebase.project-id}") String projectId
+            String projectId,
+            String baseUrl,
+            int maxInFlight,
+            HttpClient httpClient
     ) {
-        this.googleCredentials = googleCredentials;
+        if (maxInFlight < 1) throw new IllegalArgumentException("app.firebase.max-in-flight must be >= 1");
+
+        this.accessTokens = accessTokens;
         this.objectMapper = objectMapper;
-        this.projectId = projectId;
-        this.httpClient = HttpClient.newHttpClient();
+        this.sendUrl = baseUrl + "/v1/projects/" + projectId + "/messages:send";
+        this.httpClient = httpClient;
+        this.inFlight = new Semaphore(maxInFlight);
     }
 
     /**
      * Sends a push notification to a single FCM device token. By Claude
      */
     public void sendNotification(String deviceToken, String title, String body) {
+        sendAll(List.of(new PushMessage(deviceToken, title, body)));
+    }
+
+    /**
+     * Sends every message concurrently, at most max-in-flight at a time, and waits for all
+     * of them. Takes roughly the slowest response per wave instead of the sum of all.
+     */
+    public PushDispatchResult sendAll(List<PushMessage> messages) {
+        int sent = (int) sendEach(messages).stream().filter(o -> o == PushOutcome.DELIVERED).count();
+        return new PushDispatchResult(sent, messages.size() - sent);
+    }
+
+    /**
+     * Like {@link #sendAll}, but reports each message's outcome: element i is the outcome
+     * of {@code messages.get(i)}.
+     */
+    public List<PushOutcome> sendEach(List<PushMessage> messages) {
+        if (messages.isEmpty()) return List.of();
+
+        String accessToken;
         try {
-            String accessToken = getAccessToken();
+            accessToken = accessTokens.accessToken();
+        } catch (Exception e) {
+            log.error("Failed to obtain FCM access token for {} notifications", messages.size(), e);
+            return Collections.nCopies(messages.size(), PushOutcome.RETRY);
+        }
 
-            Map<String, Object> message = Map.of(
+        List<CompletableFuture<PushOutcome>> results = messages.stream()
+                .map(m -> sendAsync(m, accessToken))
+                .toList();
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).join();
+
+        return results.stream().map(CompletableFuture::join).toList();
+    }
+
+    /**
+     * Starts one send once a slot is free. The future completes with the message's outcome
+     * and never completes exceptionally.
+     */
+    private CompletableFuture<PushOutcome> sendAsync(PushMessage message, String accessToken) {
+        HttpRequest request;
+        try {
+            Map<String, Object> payload = Map.of(
                     "message", Map.of(
-                            "token", deviceToken,
+                            "token", message.deviceToken(),
                             "notification", Map.of(
-                                    "title", title,
-                                    "body", body
+                                    "title", message.title(),
+                                    "body", message.body()
                             )
                     )
             );
 
-            String payload = objectMapper.writeValueAsString(message);
-            String url = "https://fcm.googleapis.com/v1/projects/" + projectId + "/messages:send";
-
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(url))
+            request = HttpRequest.newBuilder()
+                    .uri(URI.create(sendUrl))
+                    .timeout(REQUEST_TIMEOUT)
                     .header("Authorization", "Bearer " + accessToken)
                     .header("Content-Type", "application/json")
-                    .POST(HttpRequest.BodyPublishers.ofString(payload))
+                    .POST(HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(payload)))
                     .build();
 
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-
-            if (response.statusCode() == 200) {
-                log.info("FCM notification sent successfully to token: {}", deviceToken);
-            } else {
-                log.warn("FCM notification failed. Status: {}, Body: {}", response.statusCode(), response.body());
-            }
-
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.completedFuture(PushOutcome.RETRY);
         } catch (Exception e) {
-            log.error("Failed to send FCM notification to token: {}", deviceToken, e);
+            log.error("Failed to build FCM request for token: {}", message.deviceToken(), e);
+            return CompletableFuture.completedFuture(PushOutcome.RETRY);
         }
+
+        CompletableFuture<HttpResponse<String>> pending;
+        try {
+            pending = httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+        } catch (RuntimeException e) {
+            // Failed before anything went out, so handle() below will never run to free the slot
+            inFlight.release();
+            log.error("Failed to send FCM notification to token: {}", message.deviceToken(), e);
+            return CompletableFuture.completedFuture(PushOutcome.RETRY);
+        }
+
+        return pending
+                .handle((response, error) -> {
+                    inFlight.release();
+                    if (error != null) {
+                        log.error("Failed to send FCM notification to token: {}", message.deviceToken(), error);
+                        return PushOutcome.RETRY;
+                    }
+                    if (response.statusCode() == 200) {
+                        log.info("FCM notification sent successfully to token: {}", message.deviceToken());
+                        return PushOutcome.DELIVERED;
+                    }
+                    log.warn("FCM notification failed. Status: {}, Body: {}", response.statusCode(), response.body());
+                    return classifyError(response.body());
+                });
     }
 
     /**
-     * Refreshes and returns a valid OAuth2 access token for FCM. By Claude
+     * Reads the FCM v1 error body. The specific code is in error.details[].errorCode, with
+     * error.status as the coarser fallback. Unparseable bodies are treated as retryable.
      */
-    private String getAccessToken() throws IOException {
-        googleCredentials.refreshIfExpired();
-        return googleCredentials.getAccessToken().getTokenValue();
+    PushOutcome classifyError(String body) {
+        try {
+            JsonNode error = objectMapper.readTree(body).path("error");
+            for (JsonNode detail : error.path("details")) {
+                String code = detail.path("errorCode").asText("");
+                if (!code.isEmpty()) return DEAD_TOKEN_ERRORS.contains(code) ? PushOutcome.TOKEN_DEAD : PushOutcome.RETRY;
+            }
+            return DEAD_TOKEN_ERRORS.contains(error.path("status").asText("")) ? PushOutcome.TOKEN_DEAD : PushOutcome.RETRY;
+        } catch (Exception e) {
+            return PushOutcome.RETRY;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,146 @@
+package com.applicationplanner.api.notification;
+
+import com.applicationplanner.api.enums.OutboxStatus;
+import com.applicationplanner.api.enums.PushOutcome;
+import com.applicationplanner.api.model.OutboxNotification;
+import com.applicationplanner.api.record.PushMessage;
+import com.applicationplanner.api.repository.OutboxNotificationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Durable queue between the notification jobs and FCM. Jobs enqueue; NotificationOutboxWorker
+ * threads call {@link #deliverDue} to send, retry with exponential backoff, and dead-letter.
+ * Delivery is at-least-once: a worker that dies mid-batch leaves its rows to be sent again.
+ */
+@Slf4j
+@Service
+public class NotificationOutbox {
+
+    private static final Duration MAX_BACKOFF = Duration.ofHours(1);
+
+    private final OutboxNotificationRepository outboxRepository;
+    private final FcmService fcmService;
+    private final DeviceTokenPruner deviceTokenPruner;
+    private final TransactionTemplate transactions;
+    private final int maxAttempts;
+    private final Duration baseBackoff;
+    private final Duration claimLease;
+
+    public NotificationOutbox(
+            OutboxNotificationRepository outboxRepository,
+            FcmService fcmService,
+            DeviceTokenPruner deviceTokenPruner,
+            TransactionTemplate transactions,
+            @Value("${app.notifications.outbox.max-attempts:8}") int maxAttempts,
+            @Value("${app.notifications.outbox.base-backoff-seconds:30}") long baseBackoffSeconds,
+            @Value("${app.notifications.outbox.claim-lease-seconds:300}") long claimLeaseSeconds
+    ) {
+        this.outboxRepository = outboxRepository;
+        this.fcmService = fcmService;
+        this.deviceTokenPruner = deviceTokenPruner;
+        this.transactions = transactions;
+        this.maxAttempts = maxAttempts;
+        this.baseBackoff = Duration.ofSeconds(baseBackoffSeconds);
+        this.claimLease = Duration.ofSeconds(claimLeaseSeconds);
+    }
+
+    @Transactional
+    public void enqueue(List<OutboxNotification> notifications) {
+        outboxRepository.saveAll(notifications);
+    }
+
+    /**
+     * Claims up to {@code limit} due rows, sends them, and records the outcome, with no
+     * transaction or connection held while FCM is called:
+     * <ol>
+     *   <li>a short transaction locks the due rows with SKIP LOCKED and leases them by pushing
+     *       nextAttemptAt out by the claim lease, then commits;</li>
+     *   <li>the batch is sent;</li>
+     *   <li>a second short transaction deletes delivered rows and reschedules or dead-letters
+     *       failed ones, touching only rows still carrying this claim's lease;</li>
+     *   <li>tokens FCM rejected for good are pruned in a transaction of their own.</li>
+     * </ol>
+     * A crash after sending leaves the rows leased; they are sent again once the lease runs out.
+     *
+     * @return how many rows were claimed; less than {@code limit} means the queue is drained for now
+     */
+    public int deliverDue(int limit) {
+        // Truncated so the lease reads back equal from a microsecond timestamp column
+        Instant leasedUntil = Instant.now().plus(claimLease).truncatedTo(ChronoUnit.MILLIS);
+        List<OutboxNotification> batch = transactions.execute(tx -> claimDue(limit, leasedUntil));
+        if (batch == null || batch.isEmpty()) return 0;
+
+        List<PushOutcome> outcomes = fcmService.sendEach(batch.stream()
+                .map(n -> new PushMessage(n.getDeviceToken(), n.getTitle(), n.getBody()))
+                .toList());
+
+        List<UUID> done = new ArrayList<>();
+        List<UUID> failed = new ArrayList<>();
+        Set<String> deadTokens = new HashSet<>();
+        for (int i = 0; i < batch.size(); i++) {
+            OutboxNotification n = batch.get(i);
+            switch (outcomes.get(i)) {
+                case DELIVERED -> done.add(n.getId());
+                case TOKEN_DEAD -> {
+                    done.add(n.getId());
+                    deadTokens.add(n.getDeviceToken());
+                }
+                case RETRY -> failed.add(n.getId());
+            }
+        }
+        transactions.executeWithoutResult(tx -> recordOutcomes(done, failed, leasedUntil));
+        deviceTokenPruner.prune(deadTokens);
+        return batch.size();
+    }
+
+    private List<OutboxNotification> claimDue(int limit, Instant leasedUntil) {
+        List<OutboxNotification> batch = outboxRepository.lockDue(Instant.now(), limit);
+        // Flushed on commit; until the lease runs out no worker sees these rows as due
+        batch.forEach(n -> n.setNextAttemptAt(leasedUntil));
+        return batch;
+    }
+
+    private void recordOutcomes(List<UUID> done, List<UUID> failed, Instant leasedUntil) {
+        if (!done.isEmpty()) outboxRepository.deleteClaimed(done, leasedUntil);
+        if (failed.isEmpty()) return;
+
+        Instant now = Instant.now();
+        for (OutboxNotification n : outboxRepository.findAllById(failed)) {
+            // Our lease ran out and another worker took the row over; its outcome wins
+            if (!leasedUntil.equals(n.getNextAttemptAt())) continue;
+            recordFailure(n, now);
+        }
+    }
+
+    private void recordFailure(OutboxNotification n, Instant now) {
+        n.setAttempts(n.getAttempts() + 1);
+        n.setLastError("FCM send failed on attempt " + n.getAttempts());
+
+        if (n.getAttempts() >= maxAttempts) {
+            n.setStatus(OutboxStatus.DEAD);
+            log.warn("Dead-lettered notification {} for user {} after {} attempts", n.getId(), n.getUserId(), n.getAttempts());
+            return;
+        }
+        n.setNextAttemptAt(now.plus(backoff(n.getAttempts())));
+    }
+
+    /** base * 2^(attempts-1), capped at an hour. */
+    Duration backoff(int attempts) {
+        int shift = Math.min(attempts - 1, 20);
+        Duration delay = baseBackoff.multipliedBy(1L << shift);
+        return delay.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : delay;
+    }
+}
@@ -0,0 +1,73 @@
+package com.applicationplanner.api.notification;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of threads draining the notification outbox. Each worker claims its own batch with
+ * SKIP LOCKED, so throughput scales with app.notifications.outbox.workers and with instances.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "app.notifications.outbox.enabled", havingValue = "true", matchIfMissing = true)
+public class NotificationOutboxWorker {
+
+    private final NotificationOutbox outbox;
+    private final int workers;
+    private final int batchSize;
+    private final long pollIntervalMs;
+
+    private ScheduledExecutorService executor;
+
+    public NotificationOutboxWorker(
+            NotificationOutbox outbox,
+            @Value("${app.notifications.outbox.workers:2}") int workers,
+            @Value("${app.notifications.outbox.batch-size:100}") int batchSize,
+            @Value("${app.notifications.outbox.poll-interval-ms:1000}") long pollIntervalMs
+    ) {
+        this.outbox = outbox;
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.pollIntervalMs = pollIntervalMs;
+    }
+
+    @PostConstruct
+    void start() {
+        AtomicInteger n = new AtomicInteger();
+        executor = Executors.newScheduledThreadPool(workers, r -> {
+            Thread t = new Thread(r, "notification-outbox-" + n.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        for (int i = 0; i < workers; i++) {
+            executor.scheduleWithFixedDelay(this::drain, 0, pollIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(30, TimeUnit.SECONDS)) executor.shutdownNow();
+    }
+
+    // Keeps claiming full batches until the queue runs dry, then waits for the next poll
+    private void drain() {
+        try {
+            int claimed;
+            do {
+                claimed = outbox.deliverDue(batchSize);
+            } while (claimed == batchSize && !Thread.currentThread().isInterrupted());
+        } catch (Exception e) {
+            log.error("Notification outbox batch failed", e);
+        }
+    }
+}
@@ -2,99 +2,171 @@ package com.applicationplanner.api.notification;
 
 import com.applicationplanner.api.enums.PanicStatus;
 import com.applicationplanner.api.model.Assignment;
-import com.applicationplanner.api.model.Availability;
+import com.applicationplanner.api.model.AssignmentAlertLedger;
 import com.applicationplanner.api.model.DeviceToken;
+import com.applicationplanner.api.model.OutboxNotification;
 import com.applicationplanner.api.model.Task;
-import com.applicationplanner.api.model.User;
+import com.applicationplanner.api.record.NotificationRecipient;
+import com.applicationplanner.api.record.UserAssignmentCount;
+import com.applicationplanner.api.repository.AssignmentAlertLedgerRepository;
 import com.applicationplanner.api.repository.AssignmentRepository;
-import com.applicationplanner.api.repository.AvailabilityRepository;
 import com.applicationplanner.api.repository.DeviceTokenRepository;
 import com.applicationplanner.api.repository.TaskRepository;
 import com.applicationplanner.api.repository.UserRepository;
 import com.applicationplanner.api.service.PlannerService;
+import com.applicationplanner.api.util.NotificationShards;
+import com.applicationplanner.api.util.TimezoneUtil;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
-import java.time.LocalTime;
 import java.time.ZoneId;
-import java.time.ZonedDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Component
 public class NotificationScheduler {
 
+    // How late a daily reminder may still go out, e.g. after a slow tick or a short outage
+    private static final Duration DAILY_REMINDER_GRACE = Duration.ofMinutes(5);
+
+    // Users per batch; each job issues a fixed number of queries per batch
+    static final int USER_PAGE_SIZE = 500;
+
+    // Sorts before every real id in both Postgres and H2, so the first keyset page starts here
+    private static final UUID FIRST_ID = new UUID(0, 0);
+
     private final UserRepository userRepository;
     private final AssignmentRepository assignmentRepository;
     private final TaskRepository taskRepository;
-    private final AvailabilityRepository availabilityRepository;
     private final DeviceTokenRepository deviceTokenRepository;
     private final PlannerService plannerService;
-    private final FcmService fcmService;
+    private final NotificationOutbox outbox;
+    private final AssignmentAlertLedgerRepository alertLedgerRepository;
+    private final ShardLeaseManager shardLeases;
+    private final TransactionTemplate transactions;
+    private final Duration atRiskCooldown;
 
     public NotificationScheduler(
             UserRepository userRepository,
             AssignmentRepository assignmentRepository,
             TaskRepository taskRepository,
-            AvailabilityRepository availabilityRepository,
             DeviceTokenRepository deviceTokenRepository,
             PlannerService plannerService,
-            FcmService fcmService
+            NotificationOutbox outbox,
+            AssignmentAlertLedgerRepository alertLedgerRepository,
+            ShardLeaseManager shardLeases,
+            TransactionTemplate transactions,
+            @Value("${app.notifications.at-risk-cooldown-hours:24}") long atRiskCooldownHours
     ) {
         this.userRepository = userRepository;
         this.assignmentRepository = assignmentRepository;
         this.taskRepository = taskRepository;
-        this.availabilityRepository = availabilityRepository;
         this.deviceTokenRepository = deviceTokenRepository;
         this.plannerService = plannerService;
-        this.fcmService = fcmService;
+        this.outbox = outbox;
+        this.alertLedgerRepository = alertLedgerRepository;
+        this.shardLeases = shardLeases;
+        this.transactions = transactions;
+        this.atRiskCooldown = Duration.ofHours(atRiskCooldownHours);
     }
 
     /**
-     * Runs every minute and checks which users are at their configured daily reminder time.
-     * Sends a daily reminder notification if conditions are met. By Claude
+     * Runs every minute and sends the daily reminder to users whose precomputed next fire
+     * instant has come due, then moves each of them on to their next local reminder time.
+     * Due users are handled in pages; each page costs a fixed number of reads.
      */
     @Scheduled(cron = "0 * * * * *")
     public void runDailyReminderJob() {
-        List<User> users = userRepository.findAll();
-
-        for (User user : users) {
+        Set<Integer> shards = shardLeases.ownedShards();
+        if (shards.isEmpty()) return;
+
+        Instant now = Instant.now();
+        Limit page = Limit.of(USER_PAGE_SIZE);
+
+        // Claimed users stop matching, so re-reading the first page walks the whole due set
+        while (true) {
+            // The claim already rules out repeats; this just stops work on shards handed away
+            shards = stillOwned(shards);
+            if (shards.isEmpty()) return;
+            List<NotificationRecipient> users = userRepository.findDueDailyReminders(now, shards, page);
+            int claimed;
             try {
-                if (!user.isNotificationsEnabled() || !user.isDailyReminderEnabled()) continue;
+                claimed = sendDailyReminders(users, now);
+            } catch (Exception e) {
+                // The page rolled back and would be read again; leave it to the next tick
+                log.error("Daily reminder page failed; retrying next run", e);
+                return;
+            }
+            if (users.size() < USER_PAGE_SIZE || claimed == 0) break;
+        }
+    }
 
-                ZoneId zone = safeZone(user.getTimezone());
-                ZonedDateTime nowInUserTz = ZonedDateTime.now(zone);
-                LocalTime nowTime = nowInUserTz.toLocalTime();
-                LocalTime reminderTime = LocalTime.parse(user.getDailyReminderTime());
+    /**
+     * Returns how many of {@code users} were claimed, i.e. moved off the due set. The claims and
+     * the queued pushes commit in one transaction, so a crash can't advance a reminder without
+     * also queuing it; a failed page rolls back whole and is picked up again next tick.
+     */
+    private int sendDailyReminders(List<NotificationRecipient> users, Instant now) {
+        Integer claimed = transactions.execute(tx -> claimAndQueueDailyReminders(users, now));
+        return claimed == null ? 0 : claimed;
+    }
 
-                // Fire within the same minute as the configured time
-                if (nowTime.getHour() != reminderTime.getHour() ||
-                        nowTime.getMinute() != reminderTime.getMinute()) continue;
+    private int claimAndQueueDailyReminders(List<NotificationRecipient> users, Instant now) {
+        List<UUID> recipients = new ArrayList<>();
+        int claimedCount = 0;
 
-                List<Assignment> assignments = assignmentRepository
-                        .findAllByUserIdOrderByDueDateAsc(user.getId());
+        for (NotificationRecipient user : users) {
+            Instant claimed = user.dailyReminderNextFireAt();
+            Instant next;
+            try {
+                // The query only matches users with reminders switched on, see User#rescheduleDailyReminder
+                next = TimezoneUtil.nextOccurrenceAfter(user.dailyReminderTime(), user.timezone(), now);
+            } catch (DateTimeException e) {
+                // Left due, the row would head the first page on every tick. Cleared here, it is
+                // scheduled again once the user saves a valid reminder time.
+                log.warn("Unusable daily reminder time '{}' for user {}; reminders paused",
+                        user.dailyReminderTime(), user.id());
+                next = null;
+            }
+            if (userRepository.advanceDailyReminder(user.id(), claimed, next) == 0) continue;
+            claimedCount++;
 
-                if (assignments.isEmpty()) continue;
+            // Downtime or a backfilled time already past today - don't send a stale reminder
+            if (next == null || claimed.isBefore(now.minus(DAILY_REMINDER_GRACE))) continue;
 
-                long incompleteCount = countIncompleteAssignments(assignments, user.getId());
-                if (incompleteCount == 0) continue;
+            recipients.add(user.id());
+        }
+        if (recipients.isEmpty()) return claimedCount;
 
-                String title = "Daily Study Reminder 📚";
-                String body = "You have " + incompleteCount + " assignment" +
-                        (incompleteCount > 1 ? "s" : "") + " in progress. Stay on track!";
+        List<Notification> notifications = new ArrayList<>();
+        for (UserAssignmentCount c : assignmentRepository.countWithIncompleteTasksByUserIdIn(recipients)) {
+            long incompleteCount = c.count();
 
-                sendToUser(user.getId(), title, body);
+            String title = "Daily Study Reminder 📚";
+            String body = "You have " + incompleteCount + " assignment" +
+                    (incompleteCount > 1 ? "s" : "") + " in progress. Stay on track!";
 
-            } catch (Exception e) {
-                log.error("Daily reminder failed for user {}", user.getId(), e);
-            }
+            notifications.add(new Notification(c.userId(), title, body));
         }
+        send(notifications);
+        return claimedCount;
     }
 
     /**
@@ -104,72 +176,125 @@ public class NotificationScheduler {
     //Temporary cron for testing, revert to "0 0 * * * *" after verification
     @Scheduled(cron = "0 0 * * * *")
     public void runDueDateWarningJob() {
-        List<User> users = userRepository.findAll();
+        forEachUserPage(
+                userRepository::findDueDateWarningRecipients,
+                this::sendDueDateWarnings
+        );
+    }
 
-        for (User user : users) {
-            try {
-                if (!user.isNotificationsEnabled() || !user.isDueDateWarningEnabled()) continue;
+    private void sendDueDateWarnings(List<NotificationRecipient> users) {
+        // Every user's local date is within a day of UTC's, so this window covers each warning date
+        LocalDate todayUtc = LocalDate.now(ZoneOffset.UTC);
+        int minDays = users.stream().mapToInt(NotificationRecipient::dueDateWarningDaysBefore).min().orElse(0);
+        int maxDays = users.stream().mapToInt(NotificationRecipient::dueDateWarningDaysBefore).max().orElse(0);
 
-                ZoneId zone = safeZone(user.getTimezone());
-                LocalDate todayInUserTz = LocalDate.now(zone);
+        Map<UUID, List<Assignment>> byUser = assignmentRepository
+                .findWithIncompleteTasksDueBetween(
+                        ids(users), todayUtc.plusDays(minDays - 1L), todayUtc.plusDays(maxDays + 1L))
+                .stream()
+                .collect(Collectors.groupingBy(Assignment::getUserId));
 
-                List<Assignment> assignments = assignmentRepository
-                        .findAllByUserIdOrderByDueDateAsc(user.getId());
+        List<Notification> notifications = new ArrayList<>();
+        for (NotificationRecipient user : users) {
+            try {
+                ZoneId zone = safeZone(user.timezone());
+                LocalDate todayInUserTz = LocalDate.now(zone);
 
-                for (Assignment assignment : assignments) {
+                for (Assignment assignment : byUser.getOrDefault(user.id(), List.of())) {
                     long daysUntilDue = todayInUserTz.until(assignment.getDueDate(),
                             java.time.temporal.ChronoUnit.DAYS);
 
-                    if (daysUntilDue != user.getDueDateWarningDaysBefore()) continue;
-
-                    // Check if assignment still has incomplete tasks
-                    List<Task> tasks = taskRepository.findByAssignmentId(assignment.getId());
-                    boolean hasIncompleteTasks = tasks.stream().anyMatch(t -> !t.isDone());
-
-                    if (!hasIncompleteTasks) continue;
+                    if (daysUntilDue != user.dueDateWarningDaysBefore()) continue;
 
                     String title = "Assignment Due Soon ⏰";
                     String body = "\"" + assignment.getTitle() + "\" is due in " +
                             daysUntilDue + " day" + (daysUntilDue > 1 ? "s" : "") + "!";
 
-                    sendToUser(user.getId(), title, body);
+                    notifications.add(new Notification(user.id(), title, body));
                 }
 
             } catch (Exception e) {
-                log.error("Due date warning failed for user {}", user.getId(), e);
+                log.error("Due date warning failed for user {}", user.id(), e);
             }
         }
+        send(notifications);
     }
 
     /**
      * Runs every hour and checks for assignments that are AT_RISK or SCREWED.
-     * Sends an at-risk alert notification if conditions are met. By Claude
+     * Sends an at-risk alert when an assignment's status changes, or again once the
+     * cool-down has passed while it stays at risk; see AssignmentAlertLedger.
      */
     @Scheduled(cron = "0 30 * * * *")
     public void runAtRiskAlertJob() {
-        List<User> users = userRepository.findAll();
+        forEachUserPage(
+                userRepository::findAtRiskAlertRecipients,
+                this::sendAtRiskAlerts
+        );
+    }
 
-        for (User user : users) {
+    private void sendAtRiskAlerts(List<NotificationRecipient> users) {
+        List<UUID> userIds = ids(users);
+        Map<UUID, List<Assignment>> assignmentsByUser = assignmentRepository
+                .findAllByUserIdInOrderByDueDateAsc(userIds).stream()
+                .collect(Collectors.groupingBy(Assignment::getUserId));
+        Map<UUID, AssignmentAlertLedger> ledgers = alertLedgerRepository.findAllByUserIdIn(userIds).stream()
+                .collect(Collectors.toMap(AssignmentAlertLedger::getAssignmentId, l -> l));
+
+        // Only assignments whose plan moved or whose local day rolled over need a fresh status
+        Map<UUID, LocalDate> todayByUser = new HashMap<>();
+        List<UUID> stale = new ArrayList<>();
+        for (NotificationRecipient user : users) {
+            LocalDate todayInUserTz = LocalDate.now(safeZone(user.timezone()));
+            todayByUser.put(user.id(), todayInUserTz);
+            for (Assignment assignment : assignmentsByUser.getOrDefault(user.id(), List.of())) {
+                if (!isCurrent(ledgers.get(assignment.getId()), user, todayInUserTz)) stale.add(assignment.getId());
+            }
+        }
+        Map<UUID, List<Task>> tasksByAssignment = stale.isEmpty() ? Map.of() : taskRepository
+                .findAllByAssignmentIdIn(stale).stream()
+                .collect(Collectors.groupingBy(Task::getAssignmentId));
+
+        Instant now = Instant.now();
+        List<Notification> notifications = new ArrayList<>();
+        List<AssignmentAlertLedger> touched = new ArrayList<>();
+        for (NotificationRecipient user : users) {
             try {
-                if (!user.isNotificationsEnabled() || !user.isAtRiskAlertEnabled()) continue;
-
-                ZoneId zone = safeZone(user.getTimezone());
-                LocalDate todayInUserTz = LocalDate.now(zone);
-
-                List<Assignment> assignments = assignmentRepository
-                        .findAllByUserIdOrderByDueDateAsc(user.getId());
-
-                Availability availability = availabilityRepository
-                        .findByUserId(user.getId())
-                        .orElseGet(() -> Availability.getAvailability());
-
-                for (Assignment assignment : assignments) {
-                    List<Task> tasks = taskRepository.findByAssignmentId(assignment.getId());
-                    PanicStatus status = plannerService.computePanicStatusV2(
-                            assignment, tasks, todayInUserTz
-                    );
-
-                    if (status == PanicStatus.ON_TRACK) continue;
+                LocalDate todayInUserTz = todayByUser.get(user.id());
+
+                for (Assignment assignment : assignmentsByUser.getOrDefault(user.id(), List.of())) {
+                    AssignmentAlertLedger ledger = ledgers.get(assignment.getId());
+                    if (ledger == null) {
+                        ledger = AssignmentAlertLedger.builder()
+                                .assignmentId(assignment.getId())
+                                .userId(user.id())
+                                .build();
+                    }
+                    boolean dirty = false;
+
+                    if (!isCurrent(ledger, user, todayInUserTz)) {
+                        List<Task> tasks = tasksByAssignment.getOrDefault(assignment.getId(), List.of());
+                        ledger.setStatus(plannerService.computePanicStatusV2(assignment, tasks, todayInUserTz));
+                        ledger.setEvaluatedRevision(user.planRevision());
+                        ledger.setEvaluatedOn(todayInUserTz);
+                        dirty = true;
+                    }
+                    PanicStatus status = ledger.getStatus();
+
+                    boolean notify = false;
+                    if (status == PanicStatus.ON_TRACK) {
+                        if (ledger.getNotifiedStatus() != null) {
+                            ledger.setNotifiedStatus(null);
+                            dirty = true;
+                        }
+                    } else if (status != ledger.getNotifiedStatus() || cooledDown(ledger, now)) {
+                        ledger.setNotifiedStatus(status);
+                        ledger.setNotifiedAt(now);
+                        dirty = true;
+                        notify = true;
+                    }
+                    if (dirty) touched.add(ledger);
+                    if (!notify) continue;
 
                     String title = status == PanicStatus.SCREWED
                             ? "Assignment at Critical Risk 🚨"
@@ -179,37 +304,112 @@ public class NotificationScheduler {
                             ? "\"" + assignment.getTitle() + "\" is critically behind schedule!"
                             : "\"" + assignment.getTitle() + "\" is falling behind. Time to catch up!";
 
-                    sendToUser(user.getId(), title, body);
+                    notifications.add(new Notification(user.id(), title, body));
                 }
 
             } catch (Exception e) {
-                log.error("At-risk alert failed for user {}", user.getId(), e);
+                log.error("At-risk alert failed for user {}", user.id(), e);
             }
         }
+        // Queue first: if the ledger write then fails, the worst case is one repeat next run
+        send(notifications);
+        if (!touched.isEmpty()) alertLedgerRepository.saveAll(touched);
+    }
+
+    private boolean cooledDown(AssignmentAlertLedger ledger, Instant now) {
+        return ledger.getNotifiedAt() == null || !now.isBefore(ledger.getNotifiedAt().plus(atRiskCooldown));
+    }
+
+    /** True if the ledger's status was computed against the user's current plan on their current local day. */
+    private static boolean isCurrent(AssignmentAlertLedger ledger, NotificationRecipient user, LocalDate todayInUserTz) {
+        return ledger != null
+                && ledger.getStatus() != null
+                && ledger.getEvaluatedRevision() == user.planRevision()
+                && todayInUserTz.equals(ledger.getEvaluatedOn());
     }
 
     /**
-     * Sends a notification to all registered device tokens for a user. By Claude
+     * Walks the users matched by {@code query} in this node's shards, in id order, one keyset
+     * page at a time: each page continues after the last id of the one before and is dropped
+     * before the next is read, so memory stays flat however many users there are.
+     * A failing page is logged and skipped so the rest of the run still goes out.
+     *
+     * Shard ownership is checked again for every page, right before it is processed. A pass
+     * that outlives a rebalance drops the users of shards it lost and stops once it owns none,
+     * so two nodes never send the same warning.
      */
-    private void sendToUser(UUID userId, String title, String body) {
-        List<DeviceToken> tokens = deviceTokenRepository.findAllByUserId(userId);
-        if (tokens.isEmpty()) {
-            log.debug("No device tokens found for user {}", userId);
-            return;
-        }
-        for (DeviceToken token : tokens) {
-            fcmService.sendNotification(token.getToken(), title, body);
+    private void forEachUserPage(RecipientPageQuery query, Consumer<List<NotificationRecipient>> job) {
+        Set<Integer> shards = shardLeases.ownedShards();
+        if (shards.isEmpty()) return;
+
+        Limit limit = Limit.of(USER_PAGE_SIZE);
+        UUID afterId = FIRST_ID;
+        while (true) {
+            List<NotificationRecipient> page = query.find(shards, afterId, limit);
+            if (page.isEmpty()) return;
+
+            Set<Integer> owned = stillOwned(shards);
+            if (owned.isEmpty()) {
+                log.info("Lost every notification shard mid-pass; stopping after user {}", afterId);
+                return;
+            }
+            List<NotificationRecipient> mine = owned.size() == shards.size() ? page : page.stream()
+                    .filter(u -> owned.contains(NotificationShards.of(u.id())))
+                    .toList();
+            shards = owned;
+
+            try {
+                if (!mine.isEmpty()) job.accept(mine);
+            } catch (Exception e) {
+                log.error("Notification job failed for the page after user {}", afterId, e);
+            }
+            if (page.size() < USER_PAGE_SIZE) return;
+            afterId = page.get(page.size() - 1).id();
         }
     }
 
+    /** The shards of {@code started} this node still holds; newly gained ones wait for the next run. */
+    private Set<Integer> stillOwned(Set<Integer> started) {
+        Set<Integer> current = shardLeases.ownedShards();
+        if (current.containsAll(started)) return started;
+        return started.stream().filter(current::contains).collect(Collectors.toUnmodifiableSet());
+    }
+
     /**
-     * Counts assignments with at least one incomplete task for a given user. By Claude
+     * Queues each notification for all registered device tokens of its user, loading the
+     * tokens for the whole batch in one query. NotificationOutboxWorker does the sending.
      */
-    private long countIncompleteAssignments(List<Assignment> assignments, UUID userId) {
-        return assignments.stream().filter(a -> {
-            List<Task> tasks = taskRepository.findByAssignmentId(a.getId());
-            return tasks.stream().anyMatch(t -> !t.isDone());
-        }).count();
+    private void send(List<Notification> notifications) {
+        if (notifications.isEmpty()) return;
+
+        Set<UUID> userIds = notifications.stream().map(Notification::userId).collect(Collectors.toSet());
+        Map<UUID, List<DeviceToken>> tokensByUser = deviceTokenRepository.findAllByUserIdIn(userIds).stream()
+                .collect(Collectors.groupingBy(DeviceToken::getUserId));
+
+        List<OutboxNotification> queued = new ArrayList<>();
+        for (Notification n : notifications) {
+            List<DeviceToken> tokens = tokensByUser.getOrDefault(n.userId(), List.of());
+            if (tokens.isEmpty()) {
+                log.debug("No device tokens found for user {}", n.userId());
+                continue;
+            }
+            for (DeviceToken token : tokens) {
+                queued.add(OutboxNotification.builder()
+                        .userId(n.userId())
+                        .deviceToken(token.getToken())
+                        .title(n.title())
+                        .body(n.body())
+                        .build());
+            }
+        }
+        if (queued.isEmpty()) return;
+
+        outbox.enqueue(queued);
+        log.debug("Queued {} notifications", queued.size());
+    }
+
+    private static List<UUID> ids(List<NotificationRecipient> users) {
+        return users.stream().map(NotificationRecipient::id).toList();
     }
 
     /**
@@ -222,4 +422,11 @@ public class NotificationScheduler {
             return ZoneId.of("UTC");
         }
     }
-}
\ No newline at end of file
+
+    private record Notification(UUID userId, String title, String body) {}
+
+    @FunctionalInterface
+    private interface RecipientPageQuery {
+        List<NotificationRecipient> find(Collection<Integer> shards, UUID afterId, Limit limit);
+    }
+}
@@ -0,0 +1,164 @@
+package com.applicationplanner.api.notification;
+
+import com.applicationplanner.api.model.NotificationNode;
+import com.applicationplanner.api.model.NotificationShardLease;
+import com.applicationplanner.api.repository.NotificationNodeRepository;
+import com.applicationplanner.api.repository.NotificationShardLeaseRepository;
+import com.applicationplanner.api.util.NotificationShards;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Decides which NotificationShards this instance handles, so every user's notification
+ * jobs run on exactly one node. Each heartbeat:
+ * <ol>
+ *   <li>records this node as live and counts the live nodes,</li>
+ *   <li>renews the leases it holds and releases any beyond its fair share (ceil(shards / nodes)),</li>
+ *   <li>claims free or expired shards up to that share.</li>
+ * </ol>
+ * A node that joins picks up the shards others release; a node that dies stops renewing
+ * and its shards are claimed once their leases expire.
+ *
+ * With app.notifications.sharding.enabled=false (single instance) every shard is owned.
+ */
+@Slf4j
+@Component
+public class ShardLeaseManager {
+
+    // A lease is only acted on while it has at least this much left, to absorb clock skew
+    private static final Duration SAFETY_MARGIN = Duration.ofSeconds(5);
+
+    private final NotificationShardLeaseRepository leaseRepository;
+    private final NotificationNodeRepository nodeRepository;
+    private final TransactionTemplate transactions;
+    private final boolean enabled;
+    private final Duration leaseDuration;
+    private final String nodeId;
+
+    private volatile Owned owned = new Owned(Set.of(), Instant.EPOCH);
+
+    public ShardLeaseManager(
+            NotificationShardLeaseRepository leaseRepository,
+            NotificationNodeRepository nodeRepository,
+            TransactionTemplate transactions,
+            @Value("${app.notifications.sharding.enabled:true}") boolean enabled,
+            @Value("${app.notifications.sharding.lease-seconds:30}") long leaseSeconds
+    ) {
+        this.leaseRepository = leaseRepository;
+        this.nodeRepository = nodeRepository;
+        this.transactions = transactions;
+        this.enabled = enabled;
+        this.leaseDuration = Duration.ofSeconds(leaseSeconds);
+        this.nodeId = hostName() + "-" + UUID.randomUUID();
+    }
+
+    /** Shards this node may process right now; empty if its leases are about to lapse. */
+    public Set<Integer> ownedShards() {
+        if (!enabled) return NotificationShards.ALL;
+
+        Owned snapshot = owned;
+        if (Instant.now().plus(SAFETY_MARGIN).isAfter(snapshot.validUntil())) return Set.of();
+        return snapshot.shards();
+    }
+
+    @Scheduled(fixedDelayString = "${app.notifications.sharding.heartbeat-ms:10000}")
+    public void heartbeat() {
+        if (!enabled) return;
+        // Caught outside the transaction so a failure at commit is logged like any other
+        try {
+            transactions.executeWithoutResult(tx -> rebalance(Instant.now()));
+        } catch (Exception e) {
+            log.error("Notification shard heartbeat failed for node {}", nodeId, e);
+        }
+    }
+
+    void rebalance(Instant now) {
+        Instant leaseUntil = now.plus(leaseDuration);
+
+        nodeRepository.save(new NotificationNode(nodeId, now));
+        long liveNodes = Math.max(1, nodeRepository.countByHeartbeatAtAfter(now.minus(leaseDuration)));
+        int fairShare = (int) ((NotificationShards.COUNT + liveNodes - 1) / liveNodes);
+
+        List<NotificationShardLease> mine = leaseRepository.findAllByOwnerOrderByShardAsc(nodeId);
+        for (int i = 0; i < mine.size(); i++) {
+            NotificationShardLease lease = mine.get(i);
+            if (i < fairShare) {
+                lease.setLeaseUntil(leaseUntil);
+            } else {
+                lease.setOwner(null);
+                lease.setLeaseUntil(null);
+            }
+        }
+
+        int kept = Math.min(mine.size(), fairShare);
+        Set<Integer> shards = mine.stream().limit(kept)
+                .map(NotificationShardLease::getShard)
+                .collect(Collectors.toSet());
+
+        if (kept < fairShare) {
+            for (NotificationShardLease lease : leaseRepository.lockClaimable(now, fairShare - kept)) {
+                lease.setOwner(nodeId);
+                lease.setLeaseUntil(leaseUntil);
+                shards.add(lease.getShard());
+            }
+        }
+
+        nodeRepository.deleteStale(now.minus(leaseDuration.multipliedBy(10)));
+
+        publish(Set.copyOf(shards), leaseUntil, liveNodes);
+    }
+
+    /**
+     * Stops working released shards at once, but only starts on newly claimed or renewed
+     * ones after the claim has committed - until then another node may still hold them.
+     */
+    private void publish(Set<Integer> shards, Instant leaseUntil, long liveNodes) {
+        Owned previous = owned;
+        if (!shards.equals(previous.shards())) {
+            log.info("Node {} now owns {} of {} notification shards ({} live nodes)",
+                    nodeId, shards.size(), NotificationShards.COUNT, liveNodes);
+        }
+
+        Owned next = new Owned(shards, leaseUntil);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            owned = next;
+            return;
+        }
+
+        Set<Integer> stillMine = previous.shards().stream().filter(shards::contains).collect(Collectors.toUnmodifiableSet());
+        owned = new Owned(stillMine, previous.validUntil());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                owned = next;
+            }
+        });
+    }
+
+    String nodeId() {
+        return nodeId;
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            return "node";
+        }
+    }
+
+    private record Owned(Set<Integer> shards, Instant validUntil) {}
+}
@@ -0,0 +1,154 @@
+package com.applicationplanner.api.planner;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+/**
+ * Remaining planning hours per day, kept in a flat int[] indexed by the day's offset from
+ * the plan origin (today). The planner walks days as plain ints, so allocation does no
+ * boxing and creates no LocalDate objects however long the horizon is.
+ *
+ * Every {@link #take} between {@link #beginRun()} and {@link #endRun()} is also logged as
+ * (offset, hours) pairs, which is what a {@link PlanCheckpoint} hands back on replay.
+ *
+ * Full days are linked past with a union-find style next-pointer ({@link #nextOpen}), so
+ * walking a window where most days are already used up costs the days that still have
+ * hours, not the window length.
+ */
+public final class CapacityLedger {
+
+    private final LocalDate origin;
+    private final int originDow;          // 0 = Monday
+    private final int[] weeklyHours;      // Mon..Sun
+    private int[] remaining;
+    private int length;
+
+    // next[i] == i while day i has hours left; otherwise it points further right.
+    // next[length] is the "no open day" sentinel. Rebuilt lazily after giveBack reopens days.
+    private int[] next = new int[] {0};
+    private boolean nextStale;
+
+    private int[] log = new int[32];
+    private int logSize;
+
+    private CapacityLedger(LocalDate origin, int[] weeklyHours, int[] remaining, int length) {
+        this.origin = origin;
+        this.originDow = origin.getDayOfWeek().getValue() - 1;
+        this.weeklyHours = weeklyHours;
+        this.remaining = remaining;
+        this.length = length;
+        this.nextStale = true;
+    }
+
+    /**
+     * Opens a ledger covering origin..lastDay (at least the origin day itself), with every
+     * day starting at its weekday's availability.
+     */
+    public static CapacityLedger open(LocalDate origin, LocalDate lastDay, int[] weeklyHours) {
+        CapacityLedger ledger = new CapacityLedger(origin, weeklyHours.clone(), new int[0], 0);
+        ledger.extendTo(lastDay);
+        return ledger;
+    }
+
+    public int offsetOf(LocalDate date) {
+        return (int) (date.toEpochDay() - origin.toEpochDay());
+    }
+
+    public LocalDate dateAt(int offset) {
+        return origin.plusDays(offset);
+    }
+
+    public LocalDate lastDay() {
+        return origin.plusDays(length - 1L);
+    }
+
+    /** Hours still free on the day; days outside the ledger have none. */
+    public int remaining(int offset) {
+        return offset >= 0 && offset < length ? remaining[offset] : 0;
+    }
+
+    /**
+     * First day at or after offset that still has hours, or {@link #length()} if there is none.
+     * Amortised near-constant: every full day is skipped over with path halving.
+     */
+    public int nextOpen(int offset) {
+        if (offset >= length) return length;
+        if (nextStale) rebuildNext();
+
+        int i = Math.max(0, offset);
+        while (next[i] != i) {
+            next[i] = next[next[i]];
+            i = next[i];
+        }
+        return i;
+    }
+
+    /** Number of days the ledger covers; also the value {@link #nextOpen} returns when nothing is left. */
+    public int length() {
+        return length;
+    }
+
+    /** The user's weekly availability for the day, regardless of what has been taken. */
+    public int hoursOn(int offset) {
+        return weeklyHours[Math.floorMod(originDow + offset, 7)];
+    }
+
+    /**
+     * Grows the ledger so it covers lastDay. New days were never allocated, so they start
+     * with their full weekday hours.
+     */
+    public void extendTo(LocalDate lastDay) {
+        int newLength = Math.max(1, offsetOf(lastDay) + 1);
+        if (newLength <= length) return;
+
+        if (newLength > remaining.length) {
+            remaining = Arrays.copyOf(remaining, Math.max(newLength, remaining.length * 2));
+        }
+        for (int i = length; i < newLength; i++) remaining[i] = hoursOn(i);
+
+        if (!nextStale) {
+            if (newLength + 1 > next.length) next = Arrays.copyOf(next, Math.max(newLength + 1, next.length * 2));
+            // the old sentinel becomes a real day; chains that ended there now continue into the new days
+            for (int i = length; i < newLength; i++) next[i] = remaining[i] > 0 ? i : i + 1;
+            next[newLength] = newLength;
+        }
+        length = newLength;
+    }
+
+    public void take(int offset, int hours) {
+        remaining[offset] -= hours;
+        if (remaining[offset] == 0 && !nextStale) next[offset] = offset + 1;
+
+        if (logSize + 2 > log.length) log = Arrays.copyOf(log, log.length * 2);
+        log[logSize++] = offset;
+        log[logSize++] = hours;
+    }
+
+    /** Returns hours logged by a previous run, as (offset, hours) pairs. */
+    public void giveBack(int[] allocations) {
+        for (int i = 0; i < allocations.length; i += 2) {
+            remaining[allocations[i]] += allocations[i + 1];
+        }
+        if (allocations.length > 0) nextStale = true;
+    }
+
+    public void beginRun() {
+        logSize = 0;
+    }
+
+    /** Everything taken since {@link #beginRun()}, as (offset, hours) pairs. */
+    public int[] endRun() {
+        return Arrays.copyOf(log, logSize);
+    }
+
+    public CapacityLedger copy() {
+        return new CapacityLedger(origin, weeklyHours, Arrays.copyOf(remaining, length), length);
+    }
+
+    private void rebuildNext() {
+        if (next.length < length + 1) next = new int[Math.max(length + 1, remaining.length + 1)];
+        for (int i = 0; i < length; i++) next[i] = remaining[i] > 0 ? i : i + 1;
+        next[length] = length;
+        nextStale = false;
+    }
+}
@@ -0,0 +1,37 @@
+package com.applicationplanner.api.planner;
+
+import java.time.LocalDate;
+
+/**
+ * Planned effort per day over origin..lastDay, kept as a Fenwick tree so adding a task's
+ * hours and asking "how much is planned from origin through day X" are both O(log days).
+ * Days outside the range are ignored on add; a query before origin sums to 0.
+ */
+public final class EffortByDay {
+
+    private final LocalDate origin;
+    private final int[] tree;      // 1-based
+
+    public EffortByDay(LocalDate origin, LocalDate lastDay) {
+        this.origin = origin;
+        this.tree = new int[Math.max(1, offsetOf(lastDay) + 1) + 1];
+    }
+
+    public void add(LocalDate day, int hours) {
+        int offset = offsetOf(day);
+        if (offset < 0 || offset >= tree.length - 1) return;
+        for (int i = offset + 1; i < tree.length; i += i & -i) tree[i] += hours;
+    }
+
+    /** Effort planned on origin..day, both inclusive. */
+    public int sumThrough(LocalDate day) {
+        int offset = Math.min(offsetOf(day), tree.length - 2);
+        int sum = 0;
+        for (int i = offset + 1; i > 0; i -= i & -i) sum += tree[i];
+        return sum;
+    }
+
+    private int offsetOf(LocalDate day) {
+        return (int) (day.toEpochDay() - origin.toEpochDay());
+    }
+}
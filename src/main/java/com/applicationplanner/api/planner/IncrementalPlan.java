@@ -0,0 +1,18 @@
+package com.applicationplanner.api.planner;
+
+import com.applicationplanner.api.model.Task;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Result of an incremental planning run.
+ * {@code replayedFrom} is the index (in planning order) of the first assignment that was
+ * re-allocated; everything before it was copied from the previous checkpoint.
+ */
+public record IncrementalPlan(
+        Map<UUID, List<Task>> plan,
+        PlanCheckpoint checkpoint,
+        int replayedFrom
+) {}
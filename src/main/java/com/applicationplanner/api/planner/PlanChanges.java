@@ -0,0 +1,56 @@
+package com.applicationplanner.api.planner;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Rows one mutation changed, collected while it runs and logged once at the end under the
+ * plan revision it produces. A mutation that collects nothing leaves the revision alone.
+ */
+public final class PlanChanges {
+
+    private final Set<UUID> assignments = new LinkedHashSet<>();
+    private final Set<UUID> tasks = new LinkedHashSet<>();
+    private final Set<UUID> deletedAssignments = new LinkedHashSet<>();
+    private final Set<UUID> deletedTasks = new LinkedHashSet<>();
+
+    public void assignmentChanged(UUID id) {
+        assignments.add(id);
+    }
+
+    public void taskChanged(UUID id) {
+        tasks.add(id);
+    }
+
+    public void assignmentDeleted(UUID id) {
+        assignments.remove(id);
+        deletedAssignments.add(id);
+    }
+
+    public void taskDeleted(UUID id) {
+        tasks.remove(id);
+        deletedTasks.add(id);
+    }
+
+    public boolean isEmpty() {
+        return assignments.isEmpty() && tasks.isEmpty()
+                && deletedAssignments.isEmpty() && deletedTasks.isEmpty();
+    }
+
+    public Set<UUID> assignments() {
+        return assignments;
+    }
+
+    public Set<UUID> tasks() {
+        return tasks;
+    }
+
+    public Set<UUID> deletedAssignments() {
+        return deletedAssignments;
+    }
+
+    public Set<UUID> deletedTasks() {
+        return deletedTasks;
+    }
+}
@@ -0,0 +1,86 @@
+package com.applicationplanner.api.planner;
+
+import com.applicationplanner.api.enums.UnscheduledReason;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Everything the planner needs to resume a previous run: the inputs each assignment was
+ * planned with (in planning order), the hours each one took out of the capacity ledger,
+ * the per-task results, and the ledger as it stood after the last assignment.
+ *
+ * Treated as immutable once built - the planner copies the ledger before replaying.
+ */
+public final class PlanCheckpoint {
+
+    private final LocalDate today;
+    private final int[] weeklyHours;      // Mon..Sun, as of this run
+    private final List<AssignmentRun> runs;
+    private final CapacityLedger remainingCapacity;
+
+    public PlanCheckpoint(
+            LocalDate today,
+            int[] weeklyHours,
+            List<AssignmentRun> runs,
+            CapacityLedger remainingCapacity
+    ) {
+        this.today = today;
+        this.weeklyHours = weeklyHours.clone();
+        this.runs = List.copyOf(runs);
+        this.remainingCapacity = remainingCapacity;
+    }
+
+    public AssignmentRun run(int index) {
+        return runs.get(index);
+    }
+
+    /**
+     * Number of leading assignments (in planning order) whose inputs are identical to this run.
+     * Everything before that index can be reused as-is; a different day or availability
+     * invalidates the whole ledger.
+     */
+    public int matchingPrefix(LocalDate today, int[] weeklyHours, List<AssignmentInputs> inputs) {
+        if (!this.today.equals(today) || !Arrays.equals(this.weeklyHours, weeklyHours)) return 0;
+
+        int limit = Math.min(runs.size(), inputs.size());
+        int i = 0;
+        while (i < limit && runs.get(i).inputs().equals(inputs.get(i))) i++;
+        return i;
+    }
+
+    /**
+     * Rebuilds the ledger as it was right before assignment {@code index} was allocated,
+     * by handing back the hours taken by that assignment and every one after it.
+     */
+    public CapacityLedger capacityBefore(int index) {
+        CapacityLedger cap = remainingCapacity.copy();
+        for (int i = index; i < runs.size(); i++) cap.giveBack(runs.get(i).allocations());
+        return cap;
+    }
+
+    /**
+     * What the planner saw for one assignment. Two runs with equal inputs and an equal
+     * ledger going in always produce the same allocation.
+     */
+    public record AssignmentInputs(
+            UUID assignmentId,
+            LocalDate workEnd,
+            LocalDate start,
+            List<TaskInput> tasks       // in planner iteration order
+    ) {}
+
+    // effortHours is normalised to 0 for done tasks, since the planner never reads it
+    public record TaskInput(UUID taskId, boolean done, int effortHours) {}
+
+    public record TaskOutput(LocalDate targetDate, boolean unscheduled, UnscheduledReason reason) {}
+
+    public record AssignmentRun(
+            AssignmentInputs inputs,
+            int[] allocations,                    // (day offset, hours) pairs taken out of the ledger
+            Map<UUID, TaskOutput> outputs         // incomplete tasks only; done tasks pass through
+    ) {}
+}
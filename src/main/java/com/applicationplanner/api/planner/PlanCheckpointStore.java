@@ -0,0 +1,41 @@
+package com.applicationplanner.api.planner;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Keeps the last {@link PlanCheckpoint} per user, bounded with LRU eviction.
+ *
+ * A checkpoint is only ever a hint: the planner re-validates it against freshly loaded
+ * inputs, so a stale or missing entry costs a longer replay, never a wrong plan.
+ */
+@Component
+public class PlanCheckpointStore {
+
+    private final Map<UUID, PlanCheckpoint> checkpoints;
+
+    public PlanCheckpointStore(@Value("${app.planner.checkpoint-cache-size:1000}") int maxEntries) {
+        this.checkpoints = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, PlanCheckpoint> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public synchronized PlanCheckpoint get(UUID userId) {
+        return checkpoints.get(userId);
+    }
+
+    public synchronized void put(UUID userId, PlanCheckpoint checkpoint) {
+        checkpoints.put(userId, checkpoint);
+    }
+
+    public synchronized void evict(UUID userId) {
+        checkpoints.remove(userId);
+    }
+}
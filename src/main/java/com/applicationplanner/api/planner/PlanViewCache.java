@@ -0,0 +1,66 @@
+package com.applicationplanner.api.planner;
+
+import com.applicationplanner.api.dto.responseDTO.PlanViewResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Last rendered GET /plan body per user, bounded with LRU eviction.
+ *
+ * Entries are keyed by the persisted users.plan_revision they were read at. Callers look up
+ * with the revision they just read from the database, so a write committed on any instance
+ * moves the revision and the entry stops being served; no cross-node invalidation is needed.
+ * A snapshot reads its revision before its rows, so an entry can only ever be newer than
+ * its revision, never older.
+ */
+@Component
+public class PlanViewCache {
+
+    private final Map<UUID, Entry> entries;
+
+    public PlanViewCache(@Value("${app.planner.plan-view-cache-size:1000}") int maxEntries) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /** The cached plan if it was read at {@code revision} for the same day, else null. */
+    public synchronized CachedPlan get(UUID userId, long revision, LocalDate today) {
+        Entry e = entries.get(userId);
+        if (e == null || e.plan().revision() != revision || !e.today().equals(today)) return null;
+        return e.plan();
+    }
+
+    public synchronized void put(UUID userId, LocalDate today, CachedPlan plan) {
+        Entry current = entries.get(userId);
+        // a slower reader must not replace a body read at a later revision
+        if (current != null && current.plan().revision() > plan.revision()) return;
+        entries.put(userId, new Entry(today, plan));
+    }
+
+    /**
+     * Drops the user's entry early on the instance that made the write. Only frees memory:
+     * the revision check in {@link #get} already keeps every instance from serving it.
+     */
+    public synchronized void invalidate(UUID userId) {
+        entries.remove(userId);
+    }
+
+    /** Rendered body plus the persisted plan revision it was read at (the ETag). */
+    public record CachedPlan(long revision, List<PlanViewResponse> views) {
+        public CachedPlan {
+            views = List.copyOf(views);
+        }
+    }
+
+    private record Entry(LocalDate today, CachedPlan plan) {}
+}
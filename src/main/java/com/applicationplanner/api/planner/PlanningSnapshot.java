@@ -0,0 +1,121 @@
+package com.applicationplanner.api.planner;
+
+import com.applicationplanner.api.model.Assignment;
+import com.applicationplanner.api.model.Task;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * One user's assignments and tasks, loaded once and indexed for every planning stage:
+ * assignments in planning order and by id, tasks by id and grouped per assignment in
+ * orderIndex order, and each assignment's effective start date.
+ *
+ * Built once per replan / plan view; nothing downstream scans or re-sorts these again.
+ */
+public final class PlanningSnapshot {
+
+    // dueDate, then creation time, then id - the same order the planner allocates in
+    private static final Comparator<Assignment> PLANNING_ORDER = Comparator
+            .comparing(Assignment::getDueDate)
+            .thenComparing(a -> Optional.ofNullable(a.getCreatedAt()).orElse(Instant.EPOCH))
+            .thenComparing(Assignment::getId);
+
+    private final LocalDate today;
+    private final List<Assignment> assignments;
+    private final Map<UUID, Assignment> assignmentsById;
+    private final Map<UUID, List<Task>> tasksByAssignmentId;
+    private final Map<UUID, Task> tasksById;
+    private final Map<UUID, LocalDate> effectiveStartDates;
+
+    private PlanningSnapshot(
+            LocalDate today,
+            List<Assignment> assignments,
+            Map<UUID, Assignment> assignmentsById,
+            Map<UUID, List<Task>> tasksByAssignmentId,
+            Map<UUID, Task> tasksById,
+            Map<UUID, LocalDate> effectiveStartDates
+    ) {
+        this.today = today;
+        this.assignments = assignments;
+        this.assignmentsById = assignmentsById;
+        this.tasksByAssignmentId = tasksByAssignmentId;
+        this.tasksById = tasksById;
+        this.effectiveStartDates = effectiveStartDates;
+    }
+
+    public static PlanningSnapshot of(LocalDate today, List<Assignment> assignments, List<Task> tasks) {
+        List<Assignment> ordered = new ArrayList<>(assignments);
+        ordered.sort(PLANNING_ORDER);
+
+        Map<UUID, Assignment> byId = new HashMap<>(ordered.size() * 2);
+        Map<UUID, LocalDate> starts = new HashMap<>(ordered.size() * 2);
+        for (Assignment a : ordered) {
+            byId.put(a.getId(), a);
+            starts.put(a.getId(), effectiveStartDate(a.getStartDate(), today));
+        }
+
+        Map<UUID, List<Task>> grouped = new HashMap<>(ordered.size() * 2);
+        Map<UUID, Task> tasksById = new HashMap<>(tasks.size() * 2);
+        for (Task t : tasks) {
+            grouped.computeIfAbsent(t.getAssignmentId(), k -> new ArrayList<>()).add(t);
+            tasksById.put(t.getId(), t);
+        }
+        for (Map.Entry<UUID, List<Task>> e : grouped.entrySet()) {
+            List<Task> list = e.getValue();
+            list.sort(Comparator.comparingInt(Task::getOrderIndex));
+            e.setValue(Collections.unmodifiableList(list));
+        }
+
+        return new PlanningSnapshot(
+                today,
+                Collections.unmodifiableList(ordered),
+                byId,
+                grouped,
+                tasksById,
+                starts
+        );
+    }
+
+    /**
+     * Returns the effective start date for planning.
+     * If startDate is set and in the future, use it. Otherwise use today.
+     */
+    public static LocalDate effectiveStartDate(LocalDate startDate, LocalDate today) {
+        if (startDate != null && startDate.isAfter(today)) {
+            return startDate;
+        }
+        return today;
+    }
+
+    public LocalDate today() {
+        return today;
+    }
+
+    /** In planning order. */
+    public List<Assignment> assignments() {
+        return assignments;
+    }
+
+    public Assignment assignment(UUID assignmentId) {
+        return assignmentsById.get(assignmentId);
+    }
+
+    /** Sorted by orderIndex; empty if the assignment has no tasks. */
+    public List<Task> tasksOf(UUID assignmentId) {
+        return tasksByAssignmentId.getOrDefault(assignmentId, List.of());
+    }
+
+    public Task task(UUID taskId) {
+        return tasksById.get(taskId);
+    }
+
+    public Map<UUID, LocalDate> effectiveStartDates() {
+        return Collections.unmodifiableMap(effectiveStartDates);
+    }
+
+    public LocalDate effectiveStart(UUID assignmentId) {
+        return effectiveStartDates.getOrDefault(assignmentId, today);
+    }
+}
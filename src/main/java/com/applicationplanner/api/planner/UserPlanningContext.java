@@ -0,0 +1,99 @@
+package com.applicationplanner.api.planner;
+
+import com.applicationplanner.api.model.Availability;
+import com.applicationplanner.api.model.User;
+import com.applicationplanner.api.repository.AssignmentRepository;
+import com.applicationplanner.api.repository.AvailabilityRepository;
+import com.applicationplanner.api.repository.UserRepository;
+import com.applicationplanner.api.security.CurrentUser;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * What one request knows about the signed-in user: their row, their stored availability and
+ * the ids of the assignments they own. Each part is read at most once per request, on first
+ * use, and then shared by TimezoneResolver, the orchestrator and the controllers.
+ *
+ * Writes made through the orchestrator are applied here as well, so later reads in the same
+ * request see them. If the caller changes mid-request (only tests do that) everything is
+ * dropped and reloaded for the new user.
+ */
+@Component
+@RequestScope
+public class UserPlanningContext {
+
+    private final UserRepository userRepository;
+    private final AvailabilityRepository availabilityRepository;
+    private final AssignmentRepository assignmentRepository;
+
+    private UUID userId;
+    private Optional<User> user;
+    private Optional<Availability> availability;
+    private Set<UUID> ownedAssignmentIds;
+
+    public UserPlanningContext(
+            UserRepository userRepository,
+            AvailabilityRepository availabilityRepository,
+            AssignmentRepository assignmentRepository
+    ) {
+        this.userRepository = userRepository;
+        this.availabilityRepository = availabilityRepository;
+        this.assignmentRepository = assignmentRepository;
+    }
+
+    public Optional<User> user() {
+        UUID id = currentUserId();
+        if (user == null) user = userRepository.findById(id);
+        return user;
+    }
+
+    /** After saving the user's row; {@code saved} is what later reads in this request get. */
+    public void userSaved(User saved) {
+        currentUserId();
+        user = Optional.of(saved);
+    }
+
+    /** The user's stored availability; empty until they first save one or a replan creates it. */
+    public Optional<Availability> availability() {
+        UUID id = currentUserId();
+        if (availability == null) availability = availabilityRepository.findByUserId(id);
+        return availability;
+    }
+
+    public void availabilitySaved(Availability saved) {
+        currentUserId();
+        availability = Optional.of(saved);
+    }
+
+    public boolean ownsAssignment(UUID assignmentId) {
+        UUID id = currentUserId();
+        if (ownedAssignmentIds == null) ownedAssignmentIds = new HashSet<>(assignmentRepository.findIdsByUserId(id));
+        return ownedAssignmentIds.contains(assignmentId);
+    }
+
+    public void assignmentCreated(UUID assignmentId) {
+        currentUserId();
+        if (ownedAssignmentIds != null) ownedAssignmentIds.add(assignmentId);
+    }
+
+    public void assignmentRemoved(UUID assignmentId) {
+        currentUserId();
+        if (ownedAssignmentIds != null) ownedAssignmentIds.remove(assignmentId);
+    }
+
+    private UUID currentUserId() {
+        UUID current = CurrentUser.requireUserId();
+        if (!current.equals(userId)) {
+            userId = current;
+            user = null;
+            availability = null;
+            ownedAssignmentIds = null;
+        }
+        return current;
+    }
+}
@@ -0,0 +1,17 @@
+package com.applicationplanner.api.record;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * The slice of a user the notification jobs read; projected straight from the users
+ * table so a page of recipients never loads or manages full User entities.
+ */
+public record NotificationRecipient(
+        UUID id,
+        String timezone,
+        String dailyReminderTime,
+        Instant dailyReminderNextFireAt,
+        int dueDateWarningDaysBefore,
+        long planRevision
+) {}
@@ -0,0 +1,23 @@
+package com.applicationplanner.api.record;
+
+import com.applicationplanner.api.model.Task;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * What changed in a user's plan after a client's revision. When {@code full} is set the
+ * log can't answer (revision unknown or pruned) and the client must reload GET /plan.
+ */
+public record PlanDelta(
+        long revision,
+        boolean full,
+        List<AssignmentPlanView> assignments,   // planning order; tasks are not filtered
+        List<Task> tasks,                       // only the changed ones
+        List<UUID> deletedAssignmentIds,
+        List<UUID> deletedTaskIds
+) {
+    public static PlanDelta fullReload(long revision) {
+        return new PlanDelta(revision, true, List.of(), List.of(), List.of(), List.of());
+    }
+}
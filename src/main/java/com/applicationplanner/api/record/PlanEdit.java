@@ -0,0 +1,23 @@
+package com.applicationplanner.api.record;
+
+import com.applicationplanner.api.model.Assignment;
+import com.applicationplanner.api.model.Availability;
+
+import java.util.UUID;
+
+/**
+ * One edit inside a batch. Each variant mirrors a single-edit orchestrator call, so a batch
+ * applies exactly what the same calls would have applied one by one - it just replans once.
+ */
+public sealed interface PlanEdit {
+
+    record ToggleTask(UUID assignmentId, UUID taskId) implements PlanEdit {}
+
+    record TaskEffort(UUID assignmentId, UUID taskId, int effortHours) implements PlanEdit {}
+
+    record TaskTitle(UUID assignmentId, UUID taskId, String title) implements PlanEdit {}
+
+    record AssignmentPatch(UUID assignmentId, Assignment patch) implements PlanEdit {}
+
+    record AvailabilityChange(Availability availability) implements PlanEdit {}
+}
@@ -0,0 +1,6 @@
+package com.applicationplanner.api.record;
+
+public record PlanRevision(
+        long revision,         // users.plan_revision
+        long changesFloor      // changes after this revision are fully logged
+) {}
@@ -0,0 +1,8 @@
+package com.applicationplanner.api.record;
+
+import java.util.List;
+
+public record PlanSnapshot(
+        long revision,                  // users.plan_revision, read before the views
+        List<AssignmentPlanView> views
+) {}
@@ -0,0 +1,7 @@
+package com.applicationplanner.api.record;
+
+public record PlanWriteStats(
+        int tasksPlanned,      // tasks that came out of the planner
+        int tasksWritten,      // rows whose schedule actually changed and were flushed
+        int replayedFrom       // first re-allocated assignment (planning order)
+) {}
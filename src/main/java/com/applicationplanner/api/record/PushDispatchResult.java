@@ -0,0 +1,6 @@
+package com.applicationplanner.api.record;
+
+public record PushDispatchResult(
+        int sent,      // FCM answered 200
+        int failed     // non-200, timeout, or transport error
+) {}
@@ -0,0 +1,7 @@
+package com.applicationplanner.api.record;
+
+public record PushMessage(
+        String deviceToken,
+        String title,
+        String body
+) {}
@@ -0,0 +1,8 @@
+package com.applicationplanner.api.record;
+
+import java.util.UUID;
+
+public record TokenPrincipal(
+        UUID userId,
+        String timezone        // the "tz" claim; null for tokens issued without one
+) {}
@@ -0,0 +1,8 @@
+package com.applicationplanner.api.record;
+
+import java.util.UUID;
+
+public record UserAssignmentCount(
+        UUID userId,
+        long count
+) {}
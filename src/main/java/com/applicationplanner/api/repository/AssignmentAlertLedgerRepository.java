@@ -0,0 +1,13 @@
+package com.applicationplanner.api.repository;
+
+import com.applicationplanner.api.model.AssignmentAlertLedger;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface AssignmentAlertLedgerRepository extends JpaRepository<AssignmentAlertLedger, UUID> {
+
+    List<AssignmentAlertLedger> findAllByUserIdIn(Collection<UUID> userIds);
+}
@@ -1,8 +1,13 @@
 package com.applicationplanner.api.repository;
 
 import com.applicationplanner.api.model.Assignment;
+import com.applicationplanner.api.record.UserAssignmentCount;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -14,5 +19,24 @@ public interface AssignmentRepository extends JpaRepository<Assignment, UUID>
 
     Optional<Assignment> findByIdAndUserId(UUID id, UUID userId);
 
+    @Query("select a.id from Assignment a where a.userId = :userId")
+    List<UUID> findIdsByUserId(UUID userId);
+
     void deleteByIdAndUserId(UUID id, UUID userId);
+
+    List<Assignment> findAllByUserIdInOrderByDueDateAsc(Collection<UUID> userIds);
+
+    /** Per user in the batch, how many assignments still have at least one open task; users with none are absent. */
+    @Query("select new com.applicationplanner.api.record.UserAssignmentCount(a.userId, count(a)) "
+            + "from Assignment a where a.userId in :userIds "
+            + "and exists (select 1 from Task t where t.assignmentId = a.id and t.isDone = false) "
+            + "group by a.userId")
+    List<UserAssignmentCount> countWithIncompleteTasksByUserIdIn(Collection<UUID> userIds);
+
+    /** Assignments of the batch's users, due within [from, to], that still have at least one open task. */
+    @Query("select a from Assignment a where a.userId in :userIds "
+            + "and a.dueDate between :from and :to "
+            + "and exists (select 1 from Task t where t.assignmentId = a.id and t.isDone = false) "
+            + "order by a.dueDate asc")
+    List<Assignment> findWithIncompleteTasksDueBetween(Collection<UUID> userIds, LocalDate from, LocalDate to);
 }
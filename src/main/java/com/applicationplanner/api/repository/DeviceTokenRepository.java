@@ -3,7 +3,10 @@ package com.applicationplanner.api.repository;
 import com.applicationplanner.api.model.DeviceToken;
 import jakarta.transaction.Transactional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -26,4 +29,10 @@ public interface DeviceTokenRepository extends JpaRepository<DeviceToken, UUID>
      * Finds all device tokens for a given user. By Claude
      */
     List<DeviceToken> findAllByUserId(UUID userId);
-}
\ No newline at end of file
+
+    List<DeviceToken> findAllByUserIdIn(Collection<UUID> userIds);
+
+    @Modifying
+    @Query("delete from DeviceToken d where d.token in :tokens")
+    int deleteAllByTokenIn(Collection<String> tokens);
+}
@@ -0,0 +1,17 @@
+package com.applicationplanner.api.repository;
+
+import com.applicationplanner.api.model.NotificationNode;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+
+public interface NotificationNodeRepository extends JpaRepository<NotificationNode, String> {
+
+    long countByHeartbeatAtAfter(Instant since);
+
+    @Modifying
+    @Query("delete from NotificationNode n where n.heartbeatAt < :before")
+    int deleteStale(Instant before);
+}
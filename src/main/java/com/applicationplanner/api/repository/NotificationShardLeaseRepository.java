@@ -0,0 +1,24 @@
+package com.applicationplanner.api.repository;
+
+import com.applicationplanner.api.model.NotificationShardLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface NotificationShardLeaseRepository extends JpaRepository<NotificationShardLease, Integer> {
+
+    List<NotificationShardLease> findAllByOwnerOrderByShardAsc(String owner);
+
+    /**
+     * Locks up to {@code limit} unowned or expired shards. Shards another node is claiming
+     * right now are skipped, so two nodes never take the same one.
+     */
+    @Query(value = "SELECT * FROM notification_shard_leases "
+            + "WHERE owner IS NULL OR lease_until IS NULL OR lease_until < :now "
+            + "ORDER BY shard "
+            + "LIMIT :limit "
+            + "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<NotificationShardLease> lockClaimable(Instant now, int limit);
+}
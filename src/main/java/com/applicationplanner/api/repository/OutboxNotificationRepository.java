@@ -0,0 +1,40 @@
+package com.applicationplanner.api.repository;
+
+import com.applicationplanner.api.enums.OutboxStatus;
+import com.applicationplanner.api.model.OutboxNotification;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface OutboxNotificationRepository extends JpaRepository<OutboxNotification, UUID> {
+
+    /**
+     * Locks up to {@code limit} due pending rows for the caller's transaction. Rows already
+     * locked by another worker are skipped rather than waited on, so workers never overlap.
+     * Callers lease the rows (push nextAttemptAt out) before committing, see NotificationOutbox.
+     */
+    @Query(value = "SELECT * FROM notification_outbox "
+            + "WHERE status = 'PENDING' AND next_attempt_at <= :now "
+            + "ORDER BY next_attempt_at "
+            + "LIMIT :limit "
+            + "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxNotification> lockDue(Instant now, int limit);
+
+    long countByStatus(OutboxStatus status);
+
+    /** Deletes the given rows, skipping any whose lease was taken over by another worker. */
+    @Modifying
+    @Query("delete from OutboxNotification n where n.id in :ids and n.nextAttemptAt = :leasedUntil")
+    int deleteClaimed(Collection<UUID> ids, Instant leasedUntil);
+
+    /** Drops still-queued pushes to tokens FCM has rejected for good. */
+    @Modifying
+    @Query("delete from OutboxNotification n where n.deviceToken in :tokens "
+            + "and n.status = com.applicationplanner.api.enums.OutboxStatus.PENDING")
+    int deletePendingForTokens(Collection<String> tokens);
+}
@@ -0,0 +1,18 @@
+package com.applicationplanner.api.repository;
+
+import com.applicationplanner.api.model.PlanChange;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface PlanChangeRepository extends JpaRepository<PlanChange, UUID> {
+
+    List<PlanChange> findAllByUserIdAndRevisionGreaterThan(UUID userId, long revision);
+
+    @Modifying
+    @Query("delete from PlanChange c where c.userId = :userId and c.revision <= :revision")
+    int deleteUpToRevision(UUID userId, long revision);
+}
\ No newline at end of file
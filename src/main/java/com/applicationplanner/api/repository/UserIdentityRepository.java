@@ -3,10 +3,29 @@ package com.applicationplanner.api.repository;
 import com.applicationplanner.api.enums.AuthProvider;
 import com.applicationplanner.api.model.UserIdentity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
+import java.time.OffsetDateTime;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface UserIdentityRepository extends JpaRepository<UserIdentity, UUID> {
     Optional<UserIdentity> findByProviderAndProviderSubject(AuthProvider provider, String providerSubject);
-}
\ No newline at end of file
+
+    /** The identity and its user in one query, for the login path. */
+    @Query("select i from UserIdentity i join fetch i.user "
+            + "where i.provider = :provider and i.providerSubject = :providerSubject")
+    Optional<UserIdentity> findWithUser(AuthProvider provider, String providerSubject);
+
+    /**
+     * Links a provider subject to a user unless it is already linked. Returns 0 when a
+     * concurrent first login for the same subject got there first; that insert wins.
+     */
+    @Modifying
+    @Query(value = "insert into user_identities (id, user_id, provider, provider_subject, email, created_at) "
+            + "values (:id, :userId, :provider, :providerSubject, :email, :createdAt) "
+            + "on conflict do nothing", nativeQuery = true)
+    int insertIfAbsent(UUID id, UUID userId, String provider, String providerSubject,
+                       String email, OffsetDateTime createdAt);
+}
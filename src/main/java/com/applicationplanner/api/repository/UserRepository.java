@@ -1,8 +1,77 @@
 package com.applicationplanner.api.repository;
 
 import com.applicationplanner.api.model.User;
+import com.applicationplanner.api.record.NotificationRecipient;
+import com.applicationplanner.api.record.PlanRevision;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
-public interface UserRepository extends JpaRepository<User, UUID> {}
\ No newline at end of file
+public interface UserRepository extends JpaRepository<User, UUID> {
+
+    /**
+     * Bumps the user's plan revision in the caller's transaction, so the new revision
+     * becomes visible together with the plan change that caused it.
+     */
+    @Modifying
+    @Query("update User u set u.planRevision = u.planRevision + 1 where u.id = :userId")
+    int incrementPlanRevision(UUID userId);
+
+    @Query("select u.planRevision from User u where u.id = :userId")
+    Optional<Long> findPlanRevisionById(UUID userId);
+
+    @Query("select new com.applicationplanner.api.record.PlanRevision(u.planRevision, u.planChangesFloor) "
+            + "from User u where u.id = :userId")
+    Optional<PlanRevision> findPlanRevisionAndFloorById(UUID userId);
+
+    /** Called after pruning plan_changes up to {@code floor}; never moves the floor backwards. */
+    @Modifying
+    @Query("update User u set u.planChangesFloor = :floor where u.id = :userId and u.planChangesFloor < :floor")
+    int raisePlanChangesFloor(UUID userId, long floor);
+
+    String RECIPIENT = "select new com.applicationplanner.api.record.NotificationRecipient("
+            + "u.id, u.timezone, u.dailyReminderTime, u.dailyReminderNextFireAt, "
+            + "u.dueDateWarningDaysBefore, u.planRevision) from User u ";
+
+    /** Users in {@code shards} whose daily reminder is due at or before {@code now}; served by the next-fire index. */
+    @Query(RECIPIENT + "where u.dailyReminderNextFireAt <= :now "
+            + "and u.notificationsEnabled = true and u.dailyReminderEnabled = true "
+            + "and u.notificationShard in :shards "
+            + "order by u.dailyReminderNextFireAt")
+    List<NotificationRecipient> findDueDailyReminders(Instant now, Collection<Integer> shards, Limit limit);
+
+    /**
+     * Keyset page of due-date-warning recipients in {@code shards} with ids after {@code afterId},
+     * in id order. Pass the last id of the previous page to continue; each page is an index range
+     * scan on the primary key, however deep into the table the walk is.
+     */
+    @Query(RECIPIENT + "where u.notificationsEnabled = true and u.dueDateWarningEnabled = true "
+            + "and u.notificationShard in :shards and u.id > :afterId "
+            + "order by u.id")
+    List<NotificationRecipient> findDueDateWarningRecipients(Collection<Integer> shards, UUID afterId, Limit limit);
+
+    /** Keyset page of at-risk-alert recipients; see {@link #findDueDateWarningRecipients}. */
+    @Query(RECIPIENT + "where u.notificationsEnabled = true and u.atRiskAlertEnabled = true "
+            + "and u.notificationShard in :shards and u.id > :afterId "
+            + "order by u.id")
+    List<NotificationRecipient> findAtRiskAlertRecipients(Collection<Integer> shards, UUID afterId, Limit limit);
+
+    /**
+     * Moves a due reminder on to {@code next}, but only if it still reads {@code claimed}.
+     * Returns 0 when another instance already claimed this firing or the user rescheduled
+     * in the meantime, so each reminder is sent at most once.
+     */
+    @Transactional
+    @Modifying
+    @Query("update User u set u.dailyReminderNextFireAt = :next "
+            + "where u.id = :userId and u.dailyReminderNextFireAt = :claimed")
+    int advanceDailyReminder(UUID userId, Instant claimed, Instant next);
+}
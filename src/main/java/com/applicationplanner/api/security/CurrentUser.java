@@ -1,5 +1,6 @@
 package com.applicationplanner.api.security;
 
+import com.applicationplanner.api.record.TokenPrincipal;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.util.UUID;
@@ -14,4 +15,13 @@ public final class CurrentUser {
         }
         return (UUID) auth.getPrincipal();
     }
+
+    /** The timezone claim of the request's token, or null if it carries none. */
+    public static String tokenTimezone() {
+        var auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.getDetails() instanceof TokenPrincipal principal) {
+            return principal.timezone();
+        }
+        return null;
+    }
 }
\ No newline at end of file
@@ -11,6 +11,7 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.filter.OncePerRequestFilter;
 import com.applicationplanner.api.auth.JwtService;
+import com.applicationplanner.api.record.TokenPrincipal;
 
 import java.io.IOException;
 import java.util.List;
@@ -42,7 +43,8 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         String token = header.substring("Bearer ".length()).trim();
 
         try {
-            UUID userId = jwtService.parseUserId(token);
+            TokenPrincipal principal = jwtService.parse(token);
+            UUID userId = principal.userId();
 
             request.setAttribute(ATTR_USER_ID, userId);
 
@@ -51,6 +53,7 @@ public class JwtAuthFilter extends OncePerRequestFilter {
                     null,
                     List.of(new SimpleGrantedAuthority("ROLE_USER"))
             );
+            auth.setDetails(principal);
             SecurityContextHolder.getContext().setAuthentication(auth);
 
         } catch (JwtException | IllegalArgumentException e) {
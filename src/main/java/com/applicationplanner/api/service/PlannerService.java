@@ -4,6 +4,8 @@ import com.applicationplanner.api.enums.PanicStatus;
 import com.applicationplanner.api.model.Assignment;
 import com.applicationplanner.api.model.Availability;
 import com.applicationplanner.api.model.Task;
+import com.applicationplanner.api.planner.IncrementalPlan;
+import com.applicationplanner.api.planner.PlanCheckpoint;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -24,6 +26,17 @@ public interface PlannerService {
             Map<UUID, LocalDate> effectiveStartDates
     );
 
+    // Same result as buildGlobalPlan, but resumes from the first assignment (in due-date order)
+    // whose inputs differ from the previous checkpoint. previous may be null (full rebuild).
+    IncrementalPlan buildGlobalPlanIncremental(
+            List<Assignment> assignments,
+            Map<UUID, List<Task>> tasksByAssignmentId,
+            Availability availability,
+            LocalDate today,
+            Map<UUID, LocalDate> effectiveStartDates,
+            PlanCheckpoint previous
+    );
+
     // Mirrors applyMissedTaskShift(tasks)
     List<Task> applyMissedTaskShift(List<Task> tasks, LocalDate today);
 
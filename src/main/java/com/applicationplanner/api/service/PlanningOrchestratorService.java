@@ -4,6 +4,10 @@ import com.applicationplanner.api.model.Assignment;
 import com.applicationplanner.api.model.Availability;
 import com.applicationplanner.api.model.Task;
 import com.applicationplanner.api.record.AssignmentPlanView;
+import com.applicationplanner.api.record.PlanDelta;
+import com.applicationplanner.api.record.PlanEdit;
+import com.applicationplanner.api.record.PlanSnapshot;
+import com.applicationplanner.api.record.PlanWriteStats;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -27,9 +31,21 @@ public interface PlanningOrchestratorService {
 
     void toggleTaskDoneAndPlan(UUID assignmentId, UUID taskId, LocalDate today);
 
-    // Optional: manual trigger (useful for debugging)
-    void recomputePlan(LocalDate today);
+    // Applies the edits in order in one transaction, then replans at most once
+    void applyBatchAndPlan(List<PlanEdit> edits, LocalDate today);
+
+    // Optional: manual trigger (useful for debugging). Reports how many task rows were actually written.
+    PlanWriteStats recomputePlan(LocalDate today);
 
     // Optional: if UI wants computed statuses in one call
     List<AssignmentPlanView> getPlanView(LocalDate today);
+
+    // The user's persisted plan revision; one indexed read, used to validate cached views
+    long getPlanRevision();
+
+    // The plan view together with the revision it was read at (GET /plan ETag)
+    PlanSnapshot getPlanSnapshot(LocalDate today);
+
+    // Assignments/tasks changed after the client's revision (GET /plan/changes)
+    PlanDelta getPlanChanges(long since, LocalDate today);
 }
\ No newline at end of file
@@ -5,10 +5,12 @@ import com.applicationplanner.api.enums.UnscheduledReason;
 import com.applicationplanner.api.model.Assignment;
 import com.applicationplanner.api.model.Availability;
 import com.applicationplanner.api.model.Task;
+import com.applicationplanner.api.planner.CapacityLedger;
+import com.applicationplanner.api.planner.IncrementalPlan;
+import com.applicationplanner.api.planner.PlanCheckpoint;
 import com.applicationplanner.api.service.PlannerService;
 import jakarta.transaction.Transactional;
 import org.springframework.stereotype.Service;
-import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
@@ -17,6 +19,8 @@ import java.util.*;
 @Transactional
 public class PlannerServiceImpl implements PlannerService {
 
+    private static final int NO_END = Integer.MIN_VALUE;
+
     @Override
     public List<Task> generateDefaultTasks(String assignmentTitle, LocalDate dueDate, UUID assignmentId, LocalDate today) {
         // Port of generateTasks() exactly (the currently active creation behavior)
@@ -64,31 +68,79 @@ public class PlannerServiceImpl implements PlannerService {
     ) {
         if (assignments == null || assignments.isEmpty()) return tasksByAssignmentId;
 
+        return buildGlobalPlanIncremental(
+                assignments, tasksByAssignmentId, availability, today, effectiveStartDates, null
+        ).plan();
+    }
+
+    @Override
+    public IncrementalPlan buildGlobalPlanIncremental(
+            List<Assignment> assignments,
+            Map<UUID, List<Task>> tasksByAssignmentId,
+            Availability availability,
+            LocalDate today,
+            Map<UUID, LocalDate> effectiveStartDates,
+            PlanCheckpoint previous
+    ) {
+        List<Assignment> sortedAssignments = new ArrayList<>(assignments == null ? List.of() : assignments);
+
+        // sort assignments by dueDate ascending (string compare in TS; LocalDate compare is equivalent)
+        sortedAssignments.sort(Comparator.comparing(Assignment::getDueDate));
+
+        int[] weeklyHours = weeklyHours(availability);
+
         // maxEnd = max(workEndFromDue(a.dueDate)) across assignments (fallback to today)
         LocalDate maxEnd = today;
-        for (Assignment a : assignments) {
+        List<PlanCheckpoint.AssignmentInputs> inputs = new ArrayList<>(sortedAssignments.size());
+        for (Assignment a : sortedAssignments) {
             LocalDate end = workEndFromDue(a.getDueDate());
             if (end.isAfter(maxEnd)) maxEnd = end;
-        }
 
-        Map<LocalDate, Integer> remainingCapacity = buildCapacityMap(today, maxEnd, availability);
+            inputs.add(inputsFor(
+                    a.getId(),
+                    end,
+                    effectiveStartDates.getOrDefault(a.getId(), today),
+                    tasksByAssignmentId.getOrDefault(a.getId(), List.of())
+            ));
+        }
 
-        // sort assignments by dueDate ascending (string compare in TS; LocalDate compare is equivalent)
-        List<Assignment> sortedAssignments = new ArrayList<>(assignments);
-        sortedAssignments.sort(Comparator.comparing(Assignment::getDueDate));
+        // Everything before resumeAt saw exactly the same inputs and the same ledger last time,
+        // so its allocation would come out identical - reuse it instead of walking the days again.
+        int resumeAt = previous == null ? 0 : previous.matchingPrefix(today, weeklyHours, inputs);
+
+        CapacityLedger ledger;
+        if (resumeAt == 0) {
+            ledger = CapacityLedger.open(today, maxEnd, weeklyHours);
+        } else {
+            ledger = previous.capacityBefore(resumeAt);
+            // Days past the old horizon were never touched by the reused prefix
+            ledger.extendTo(maxEnd);
+        }
 
         Map<UUID, List<Task>> next = new HashMap<>(tasksByAssignmentId);
+        List<PlanCheckpoint.AssignmentRun> runs = new ArrayList<>(sortedAssignments.size());
 
-        for (Assignment a : sortedAssignments) {
+        for (int i = 0; i < resumeAt; i++) {
+            PlanCheckpoint.AssignmentRun run = previous.run(i);
+            UUID assignmentId = sortedAssignments.get(i).getId();
+            next.put(assignmentId, applyOutputs(next.getOrDefault(assignmentId, List.of()), run.outputs()));
+            runs.add(run);
+        }
+
+        for (int i = resumeAt; i < sortedAssignments.size(); i++) {
+            Assignment a = sortedAssignments.get(i);
             UUID assignmentId = a.getId();
-            LocalDate end = workEndFromDue(a.getDueDate());
+            int end = ledger.offsetOf(workEndFromDue(a.getDueDate()));
 
-            LocalDate cursor = effectiveStartDates.getOrDefault(assignmentId, today);
+            int cursor = ledger.offsetOf(effectiveStartDates.getOrDefault(assignmentId, today));
 
             List<Task> currentTasks = next.getOrDefault(assignmentId, List.of());
 
             boolean chainBroken = false;
 
+            ledger.beginRun();
+            Map<UUID, PlanCheckpoint.TaskOutput> outputs = new HashMap<>();
+
             List<Task> updated = new ArrayList<>(currentTasks.size());
             for (Task task : currentTasks) {
 
@@ -109,41 +161,40 @@ public class PlannerServiceImpl implements PlannerService {
                     copy.setTargetDate(null); // TS uses ""
                     copy.setUnscheduledReason(UnscheduledReason.CHAIN_BROKEN);
                     updated.add(copy);
+                    outputs.put(task.getId(), outputOf(copy));
                     continue;
                 }
 
-                AllocationResult result = allocateEffortLinearly(
-                        cursor,
-                        end,
-                        task.getEffortHours(),
-                        remainingCapacity,
-                        availability
-                );
+                int endDay = allocateEffortLinearly(cursor, end, task.getEffortHours(), ledger);
 
-                if (result.endDate == null) {
+                if (endDay == NO_END) {
                     chainBroken = true;
                     Task copy = shallowCopy(task);
                     copy.setUnscheduled(true);
                     copy.setTargetDate(null);
-                    copy.setUnscheduledReason(determineReason(cursor, end, availability));
+                    copy.setUnscheduledReason(determineReason(cursor, end, ledger));
                     updated.add(copy);
+                    outputs.put(task.getId(), outputOf(copy));
                     continue;
                 }
 
-                cursor = result.endDate; // TS: cursor = result.endDate
+                cursor = endDay; // TS: cursor = result.endDate
 
                 Task copy = shallowCopy(task);
-                copy.setTargetDate(result.endDate);
+                copy.setTargetDate(ledger.dateAt(endDay));
                 copy.setUnscheduled(false);
                 copy.setUnscheduledReason(null);
 
                 updated.add(copy);
+                outputs.put(task.getId(), outputOf(copy));
             }
 
             next.put(assignmentId, updated);
+            runs.add(new PlanCheckpoint.AssignmentRun(inputs.get(i), ledger.endRun(), outputs));
         }
 
-        return next;
+        PlanCheckpoint checkpoint = new PlanCheckpoint(today, weeklyHours, runs, ledger);
+        return new IncrementalPlan(next, checkpoint, resumeAt);
     }
 
     @Override
@@ -249,56 +300,32 @@ public class PlannerServiceImpl implements PlannerService {
         return days >= 0 ? (int) days + 1 : 0;
     }
 
-    private Map<LocalDate, Integer> buildCapacityMap(LocalDate start, LocalDate end, Availability availability) {
-        Map<LocalDate, Integer> cap = new HashMap<>();
-        long total = Math.max(0, diffDays(start, end));
-        for (int i = 0; i <= (int) total; i++) {
-            LocalDate d = start.plusDays(i);
-            int hours = availabilityHoursFor(availability, d.getDayOfWeek());
-            cap.put(d, hours);
-        }
-        return cap;
-    }
-
-    private int availabilityHoursFor(Availability a, DayOfWeek dow) {
-        return switch (dow) {
-            case MONDAY -> a.getMonHours();
-            case TUESDAY -> a.getTueHours();
-            case WEDNESDAY -> a.getWedHours();
-            case THURSDAY -> a.getThuHours();
-            case FRIDAY -> a.getFriHours();
-            case SATURDAY -> a.getSatHours();
-            case SUNDAY -> a.getSunHours();
-        };
-    }
+    /**
+     * Walks days start..end (ledger offsets) taking up to {@code effort} hours.
+     * Returns the offset of the last day walked (TS: cursor - 1), or NO_END if the window can't fit it.
+     * Days with nothing left (used up, or no availability) are jumped over via the ledger's next-open index,
+     * which never changes the result: the TS loop walked them without taking anything.
+     */
+    private int allocateEffortLinearly(int start, int end, int effort, CapacityLedger ledger) {
+        // TS: an empty task "ends" the day before it starts
+        if (effort <= 0) return start - 1;
 
-    private AllocationResult allocateEffortLinearly(
-            LocalDate startDate,
-            LocalDate endDate,
-            int effort,
-            Map<LocalDate, Integer> remainingCapacity,
-            Availability availability
-    ) {
         int remaining = effort;
-        LocalDate cursor = startDate;
-
-        while (remaining > 0 && (cursor.isBefore(endDate) || cursor.isEqual(endDate))) {
-            int cap = remainingCapacity.getOrDefault(cursor, 0);
-            int dayAvail = availabilityHoursFor(availability, cursor.getDayOfWeek());
+        int cursor = ledger.nextOpen(start);
+        int lastUsed = NO_END;
 
-            if (cap > 0 && dayAvail > 0) {
-                int used = Math.min(cap, remaining);
-                remainingCapacity.put(cursor, cap - used);
-                remaining -= used;
-            }
+        while (remaining > 0 && cursor <= end) {
+            int used = Math.min(ledger.remaining(cursor), remaining);
+            ledger.take(cursor, used);
+            remaining -= used;
+            lastUsed = cursor;
 
-            cursor = cursor.plusDays(1);
+            cursor = ledger.nextOpen(cursor + 1);
         }
 
-        if (remaining > 0) return new AllocationResult(null);
+        if (remaining > 0) return NO_END;
 
-        // TS returns endDate = cursor - 1
-        return new AllocationResult(cursor.minusDays(1));
+        return lastUsed;
     }
 
     private Task shallowCopy(Task t) {
@@ -315,38 +342,56 @@ public class PlannerServiceImpl implements PlannerService {
         return copy;
     }
 
-    private static class AllocationResult {
-        private final LocalDate endDate;
-        private AllocationResult(LocalDate endDate) { this.endDate = endDate; }
+    private Task applyOutput(Task t, PlanCheckpoint.TaskOutput output) {
+        Task copy = shallowCopy(t);
+        copy.setTargetDate(output.targetDate());
+        copy.setUnscheduled(output.unscheduled());
+        copy.setUnscheduledReason(output.reason());
+        return copy;
     }
 
-    private UnscheduledReason determineReason(LocalDate start, LocalDate end, Availability availability) {
-        // If there are ZERO available hours on ANY day in the window, it's basically "window expired / no workable days"
-        // (User has no time before due date)
-        boolean anyAvailableDay = false;
-
-        LocalDate cursor = start;
-        while (!cursor.isAfter(end)) {
-            int hours = hoursFor(cursor, availability);
-            if (hours > 0) {
-                anyAvailableDay = true;
-                break;
+    private List<Task> applyOutputs(List<Task> tasks, Map<UUID, PlanCheckpoint.TaskOutput> outputs) {
+        List<Task> updated = new ArrayList<>(tasks.size());
+        for (Task t : tasks) {
+            if (t.isDone()) {
+                Task copy = shallowCopy(t);
+                copy.setUnscheduled(false);
+                copy.setUnscheduledReason(null);
+                updated.add(copy);
+            } else {
+                updated.add(applyOutput(t, outputs.get(t.getId())));
             }
-            cursor = cursor.plusDays(1);
         }
+        return updated;
+    }
+
+    private PlanCheckpoint.TaskOutput outputOf(Task planned) {
+        return new PlanCheckpoint.TaskOutput(
+                planned.getTargetDate(), planned.isUnscheduled(), planned.getUnscheduledReason()
+        );
+    }
 
-        return anyAvailableDay ? UnscheduledReason.NO_CAPACITY : UnscheduledReason.WINDOW_EXPIRED;
+    private PlanCheckpoint.AssignmentInputs inputsFor(UUID assignmentId, LocalDate end, LocalDate start, List<Task> tasks) {
+        List<PlanCheckpoint.TaskInput> taskInputs = new ArrayList<>(tasks.size());
+        for (Task t : tasks) {
+            taskInputs.add(new PlanCheckpoint.TaskInput(t.getId(), t.isDone(), t.isDone() ? 0 : t.getEffortHours()));
+        }
+        return new PlanCheckpoint.AssignmentInputs(assignmentId, end, start, taskInputs);
     }
 
-    private int hoursFor(LocalDate date, Availability availability) {
-        return switch (date.getDayOfWeek()) {
-            case MONDAY -> availability.getMonHours();
-            case TUESDAY -> availability.getTueHours();
-            case WEDNESDAY -> availability.getWedHours();
-            case THURSDAY -> availability.getThuHours();
-            case FRIDAY -> availability.getFriHours();
-            case SATURDAY -> availability.getSatHours();
-            case SUNDAY -> availability.getSunHours();
+    private int[] weeklyHours(Availability a) {
+        return new int[] {
+                a.getMonHours(), a.getTueHours(), a.getWedHours(), a.getThuHours(),
+                a.getFriHours(), a.getSatHours(), a.getSunHours()
         };
     }
+
+    private UnscheduledReason determineReason(int start, int end, CapacityLedger ledger) {
+        // If there are ZERO available hours on ANY day in the window, it's basically "window expired / no workable days"
+        // (User has no time before due date). Availability repeats weekly, so a week of the window is enough to look at.
+        for (int d = start; d <= end && d < start + 7; d++) {
+            if (ledger.hoursOn(d) > 0) return UnscheduledReason.NO_CAPACITY;
+        }
+        return UnscheduledReason.WINDOW_EXPIRED;
+    }
 }
\ No newline at end of file
@@ -1,16 +1,34 @@
 package com.applicationplanner.api.service.impl;
 
 import com.applicationplanner.api.enums.PanicStatus;
+import com.applicationplanner.api.enums.PlanChangeType;
+import com.applicationplanner.api.enums.PlanInput;
 import com.applicationplanner.api.model.Assignment;
 import com.applicationplanner.api.model.Availability;
+import com.applicationplanner.api.model.PlanChange;
 import com.applicationplanner.api.model.Task;
+import com.applicationplanner.api.planner.EffortByDay;
+import com.applicationplanner.api.planner.IncrementalPlan;
+import com.applicationplanner.api.planner.PlanChanges;
+import com.applicationplanner.api.planner.PlanCheckpointStore;
+import com.applicationplanner.api.planner.PlanViewCache;
+import com.applicationplanner.api.planner.PlanningSnapshot;
+import com.applicationplanner.api.planner.UserPlanningContext;
 import com.applicationplanner.api.record.AssignmentPlanView;
+import com.applicationplanner.api.record.PlanDelta;
+import com.applicationplanner.api.record.PlanEdit;
+import com.applicationplanner.api.record.PlanRevision;
+import com.applicationplanner.api.record.PlanSnapshot;
+import com.applicationplanner.api.record.PlanWriteStats;
 import com.applicationplanner.api.repository.AssignmentRepository;
 import com.applicationplanner.api.repository.AvailabilityRepository;
+import com.applicationplanner.api.repository.PlanChangeRepository;
 import com.applicationplanner.api.repository.TaskRepository;
+import com.applicationplanner.api.repository.UserRepository;
 import com.applicationplanner.api.security.CurrentUser;
 import com.applicationplanner.api.service.PlannerService;
 import com.applicationplanner.api.service.PlanningOrchestratorService;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -22,43 +40,62 @@ import java.util.*;
 
 import static com.applicationplanner.api.model.Availability.getAvailability;
 
+@Slf4j
 @Service
 @Transactional
 public class PlanningOrchestratorServiceImpl implements PlanningOrchestratorService {
 
+    private static final long RETAINED_REVISIONS = 1000;
+    private static final long PRUNE_EVERY_REVISIONS = 100;
+
     private final AssignmentRepository assignmentRepository;
     private final TaskRepository taskRepository;
     private final AvailabilityRepository availabilityRepository;
+    private final UserRepository userRepository;
+    private final PlanChangeRepository planChangeRepository;
     private final PlannerService plannerService;
+    private final PlanCheckpointStore checkpointStore;
+    private final PlanViewCache planViewCache;
+    private final UserPlanningContext context;
 
     public PlanningOrchestratorServiceImpl(
             AssignmentRepository assignmentRepository,
             TaskRepository taskRepository,
             AvailabilityRepository availabilityRepository,
-            PlannerService plannerService
+            UserRepository userRepository,
+            PlanChangeRepository planChangeRepository,
+            PlannerService plannerService,
+            PlanCheckpointStore checkpointStore,
+            PlanViewCache planViewCache,
+            UserPlanningContext context
     ) {
         this.assignmentRepository = assignmentRepository;
         this.taskRepository = taskRepository;
         this.availabilityRepository = availabilityRepository;
+        this.userRepository = userRepository;
+        this.planChangeRepository = planChangeRepository;
         this.plannerService = plannerService;
+        this.checkpointStore = checkpointStore;
+        this.planViewCache = planViewCache;
+        this.context = context;
     }
 
     @Override
     @Transactional
     public Assignment createAssignmentAndPlan(Assignment assignmentInput, LocalDate today) {
         UUID userId = CurrentUser.requireUserId();
+        PlanChanges changes = new PlanChanges();
 
         assignmentInput.setUserId(userId);
 
         Instant createdAt = Instant.now();
         assignmentInput.setCreatedAt(createdAt);
 
-        LocalDate effectiveStart = effectiveStartDate(assignmentInput.getStartDate(), today);
-
         int planningDays = computePlanningDaysAtCreation(today, assignmentInput.getDueDate());
         assignmentInput.setPlanningDays(planningDays);
 
         Assignment saved = assignmentRepository.save(assignmentInput);
+        context.assignmentCreated(saved.getId());
 
         List<Task> tasks = plannerService.generateDefaultTasks(
                 saved.getTitle(),
@@ -68,7 +105,11 @@ public class PlanningOrchestratorServiceImpl implements PlanningOrchestratorServ
         );
         taskRepository.saveAll(tasks);
 
-        recomputePlan(today);
+        changes.assignmentChanged(saved.getId());
+        tasks.forEach(t -> changes.taskChanged(t.getId()));
+
+        replan(userId, today, changes);
+        planChanged(userId, changes);
         return saved;
     }
 
@@ -76,42 +117,72 @@ public class PlanningOrchestratorServiceImpl implements PlanningOrchestratorServ
     @Transactional
     public void removeAssignment(UUID assignmentId, LocalDate today) {
         UUID userId = CurrentUser.requireUserId();
+        PlanChanges changes = new PlanChanges();
         Assignment owned = requireOwnedAssignment(assignmentId, userId);
 
         // delete tasks by assignmentId (they’re implicitly owned)
-        taskRepository.deleteAll(taskRepository.findByAssignmentId(owned.getId()));
+        List<Task> tasks = taskRepository.findByAssignmentId(owned.getId());
+        taskRepository.deleteAll(tasks);
         assignmentRepository.deleteByIdAndUserId(owned.getId(), userId);
+        context.assignmentRemoved(owned.getId());
+
+        tasks.forEach(t -> changes.taskDeleted(t.getId()));
+        changes.assignmentDeleted(owned.getId());
 
-        recomputePlan(today);
+        replan(userId, today, changes);
+        planChanged(userId, changes);
     }
 
     @Override
     @Transactional
     public void updateAssignmentAndPlan(UUID assignmentId, Assignment patch, LocalDate today) {
         UUID userId = CurrentUser.requireUserId();
+        PlanChanges changes = new PlanChanges();
+        replanIfAffected(applyAssignmentPatch(assignmentId, patch, userId, changes), userId, today, changes);
+        planChanged(userId, changes);
+    }
+
+    private Set<PlanInput> applyAssignmentPatch(UUID assignmentId, Assignment patch, UUID userId, PlanChanges changes) {
         Assignment existing = requireOwnedAssignment(assignmentId, userId);
 
-        if (patch.getTitle() != null) existing.setTitle(patch.getTitle());
-        if (patch.getSubject() != null) existing.setSubject(patch.getSubject());
-        if (patch.getDueDate() != null) existing.setDueDate(patch.getDueDate());
+        Set<PlanInput> touched = EnumSet.noneOf(PlanInput.class);
+        boolean changed = false;
 
-        assignmentRepository.save(existing);
+        if (patch.getTitle() != null && !patch.getTitle().equals(existing.getTitle())) {
+            existing.setTitle(patch.getTitle());
+            changed = true;
+        }
+        if (patch.getSubject() != null && !patch.getSubject().equals(existing.getSubject())) {
+            existing.setSubject(patch.getSubject());
+            changed = true;
+        }
+        if (patch.getDueDate() != null && !patch.getDueDate().equals(existing.getDueDate())) {
+            existing.setDueDate(patch.getDueDate());
+            touched.add(PlanInput.DUE_DATE);
+        }
+        if (patch.getStartDate() != null && !patch.getStartDate().equals(existing.getStartDate())) {
+            existing.setStartDate(patch.getStartDate());
+            touched.add(PlanInput.START_DATE);
+        }
 
-        recomputePlan(today);
+        assignmentRepository.save(existing);
+        if (changed || !touched.isEmpty()) changes.assignmentChanged(existing.getId());
+        return touched;
     }
 
     @Transactional(readOnly = true)
     public Availability getAvailabilityOrDefault() {
         UUID userId = CurrentUser.requireUserId();
-        return availabilityRepository.findByUserId(userId)
+        return context.availability()
                 .orElseGet(() -> defaultAvailability(userId));
     }
 
     private Availability getOrCreateAvailability(UUID userId) {
-        return availabilityRepository.findByUserId(userId)
+        return context.availability()
                 .orElseGet(() -> {
-                    Availability a = defaultAvailability(userId);
-                    return availabilityRepository.save(a);
+                    Availability a = availabilityRepository.save(defaultAvailability(userId));
+                    context.availabilitySaved(a);
+                    return a;
                 });
     }
 
@@ -119,14 +190,24 @@ public class PlanningOrchestratorServiceImpl implements PlanningOrchestratorServ
     @Transactional
     public void setAvailabilityAndPlan(Availability nextAvailability, LocalDate today) {
         UUID userId = CurrentUser.requireUserId();
+        PlanChanges changes = new PlanChanges();
+        replanIfAffected(applyAvailability(nextAvailability, userId, changes), userId, today, changes);
+        planChanged(userId, changes);
+    }
 
-        Availability existing = availabilityRepository.findByUserId(userId)
+    // Availability isn't part of the plan view; only the tasks a replan moves are logged
+    private Set<PlanInput> applyAvailability(Availability nextAvailability, UUID userId, PlanChanges changes) {
+        Availability existing = context.availability()
                 .orElseGet(() -> {
                     Availability a = defaultAvailability(userId);
                     a.setUserId(userId);
                     return a;
                 });
 
+        Set<PlanInput> touched = sameHours(existing, nextAvailability)
+                ? EnumSet.noneOf(PlanInput.class)
+                : EnumSet.of(PlanInput.AVAILABILITY);
+
         existing.setMonHours(nextAvailability.getMonHours());
         existing.setTueHours(nextAvailability.getTueHours());
         existing.setWedHours(nextAvailability.getWedHours());
@@ -135,132 +216,268 @@ public class PlanningOrchestratorServiceImpl implements PlanningOrchestratorServ
         existing.setSatHours(nextAvailability.getSatHours());
         existing.setSunHours(nextAvailability.getSunHours());
 
-        availabilityRepository.save(existing);
-
-        recomputePlan(today);
+        context.availabilitySaved(availabilityRepository.save(existing));
+        return touched;
     }
 
     @Override
     @Transactional
     public void updateTaskEffortAndPlan(UUID assignmentId, UUID taskId, int effortHours, LocalDate today) {
         UUID userId = CurrentUser.requireUserId();
-        requireOwnedAssignment(assignmentId, userId);
+        PlanChanges changes = new PlanChanges();
+        replanIfAffected(applyTaskEffort(assignmentId, taskId, effortHours, changes), userId, today, changes);
+        planChanged(userId, changes);
+    }
+
+    private Set<PlanInput> applyTaskEffort(UUID assignmentId, UUID taskId, int effortHours, PlanChanges changes) {
+        requireOwnership(assignmentId);
 
         Task t = requireTaskInAssignment(taskId, assignmentId);
 
         // enforce frontend clamp: 0..24 (logic match)
         int hours = Math.max(0, Math.min(24, effortHours));
+
+        // The planner never reads the effort of a done task, so that edit is plan-neutral
+        Set<PlanInput> touched = hours == t.getEffortHours() || t.isDone()
+                ? EnumSet.noneOf(PlanInput.class)
+                : EnumSet.of(PlanInput.EFFORT);
+
+        if (hours != t.getEffortHours()) changes.taskChanged(t.getId());
         t.setEffortHours(hours);
 
         taskRepository.save(t);
-
-        recomputePlan(today);
+        return touched;
     }
 
     @Override
     @Transactional
     public void updateTaskTitleAndPlan(UUID assignmentId, UUID taskId, String title, LocalDate today) {
         UUID userId = CurrentUser.requireUserId();
-        requireOwnedAssignment(assignmentId, userId);
+        PlanChanges changes = new PlanChanges();
+        replanIfAffected(applyTaskTitle(assignmentId, taskId, title, changes), userId, today, changes);
+        planChanged(userId, changes);
+    }
+
+    private Set<PlanInput> applyTaskTitle(UUID assignmentId, UUID taskId, String title, PlanChanges changes) {
+        requireOwnership(assignmentId);
 
         Task t = requireTaskInAssignment(taskId, assignmentId);
 
+        // Titles never feed the planner - persist the row and leave the plan alone
         String trimmed = title == null ? "" : title.trim();
-        if (trimmed.isEmpty()) return; // matches frontend (no update if empty)
+        if (trimmed.isEmpty()) return EnumSet.noneOf(PlanInput.class); // matches frontend (no update if empty)
 
+        if (!trimmed.equals(t.getTitle())) changes.taskChanged(t.getId());
         t.setTitle(trimmed);
         taskRepository.save(t);
-
-        recomputePlan(today);
+        return EnumSet.noneOf(PlanInput.class);
     }
 
     @Override
     @Transactional
     public void toggleTaskDoneAndPlan(UUID assignmentId, UUID taskId, LocalDate today) {
         UUID userId = CurrentUser.requireUserId();
-        requireOwnedAssignment(assignmentId, userId);
+        PlanChanges changes = new PlanChanges();
+        replanIfAffected(applyToggle(assignmentId, taskId, changes), userId, today, changes);
+        planChanged(userId, changes);
+    }
+
+    private Set<PlanInput> applyToggle(UUID assignmentId, UUID taskId, PlanChanges changes) {
+        requireOwnership(assignmentId);
 
         Task t = requireTaskInAssignment(taskId, assignmentId);
         t.setDone(!t.isDone());
         taskRepository.save(t);
+        changes.taskChanged(t.getId());
+        return EnumSet.of(PlanInput.DONE_FLAG);
+    }
 
-        recomputePlan(today);
+    @Override
+    @Transactional
+    public void applyBatchAndPlan(List<PlanEdit> edits, LocalDate today) {
+        UUID userId = CurrentUser.requireUserId();
+        PlanChanges changes = new PlanChanges();
+
+        // Edits run in order against the same persistence context, so a later edit sees the
+        // rows an earlier one changed. The planner runs once for the union of what they touched.
+        Set<PlanInput> touched = EnumSet.noneOf(PlanInput.class);
+        for (PlanEdit edit : edits) {
+            touched.addAll(applyEdit(edit, userId, changes));
+        }
+
+        log.debug("Applied {} batched edits for user {}, touched {}", edits.size(), userId, touched);
+        replanIfAffected(touched, userId, today, changes);
+        planChanged(userId, changes);
+    }
+
+    private Set<PlanInput> applyEdit(PlanEdit edit, UUID userId, PlanChanges changes) {
+        if (edit instanceof PlanEdit.ToggleTask e) {
+            return applyToggle(e.assignmentId(), e.taskId(), changes);
+        }
+        if (edit instanceof PlanEdit.TaskEffort e) {
+            return applyTaskEffort(e.assignmentId(), e.taskId(), e.effortHours(), changes);
+        }
+        if (edit instanceof PlanEdit.TaskTitle e) {
+            return applyTaskTitle(e.assignmentId(), e.taskId(), e.title(), changes);
+        }
+        if (edit instanceof PlanEdit.AssignmentPatch e) {
+            return applyAssignmentPatch(e.assignmentId(), e.patch(), userId, changes);
+        }
+        if (edit instanceof PlanEdit.AvailabilityChange e) {
+            return applyAvailability(e.availability(), userId, changes);
+        }
+        throw new IllegalArgumentException("Unsupported edit: " + edit);
     }
 
     @Transactional
-    public void recomputePlan(LocalDate today) {
+    public PlanWriteStats recomputePlan(LocalDate today) {
         UUID userId = CurrentUser.requireUserId();
-        List<Assignment> assignments = assignmentRepository
-                .findAllByUserIdOrderByDueDateAsc(userId);
+        PlanChanges changes = new PlanChanges();
+        PlanWriteStats stats = replan(userId, today, changes);
+        planChanged(userId, changes);
+        return stats;
+    }
 
-        assignments.sort(Comparator
-                .comparing(Assignment::getDueDate)
-                .thenComparing(a -> Optional.ofNullable(a.getCreatedAt()).orElse(Instant.EPOCH))
-                .thenComparing(Assignment::getId));
+    @Override
+    @Transactional(readOnly = true)
+    public long getPlanRevision() {
+        return userRepository.findPlanRevisionById(CurrentUser.requireUserId()).orElse(0L);
+    }
 
-        Availability availability = getOrCreateAvailability(userId);
+    @Override
+    @Transactional(readOnly = true)
+    public PlanSnapshot getPlanSnapshot(LocalDate today) {
+        UUID userId = CurrentUser.requireUserId();
 
-        List<UUID> ids = assignments.stream().map(Assignment::getId).toList();
-        List<Task> allTasks = ids.isEmpty()
-                ? List.of()
-                : taskRepository.findAllByAssignmentIdIn(ids);
+        // Revision first: if a write commits in between, the views are newer than the revision
+        // (one extra 200 later on), never older (which would hand out a wrong 304).
+        long revision = userRepository.findPlanRevisionById(userId).orElse(0L);
+        return new PlanSnapshot(revision, getPlanView(today));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PlanDelta getPlanChanges(long since, LocalDate today) {
+        UUID userId = CurrentUser.requireUserId();
+
+        PlanRevision current = userRepository.findPlanRevisionAndFloorById(userId)
+                .orElse(new PlanRevision(0, 0));
+        if (since < current.changesFloor() || since > current.revision()) {
+            return PlanDelta.fullReload(current.revision());
+        }
+        if (since == current.revision()) {
+            return new PlanDelta(current.revision(), false, List.of(), List.of(), List.of(), List.of());
+        }
+
+        // Entries committed after the revision read above may show up too; that only means the
+        // client sees them again on its next sync, never that it misses one.
+        PlanChanges changes = new PlanChanges();
+        for (PlanChange c : planChangeRepository.findAllByUserIdAndRevisionGreaterThan(userId, since)) {
+            if (c.getEntityType() == PlanChangeType.ASSIGNMENT) {
+                if (c.isDeleted()) changes.assignmentDeleted(c.getEntityId());
+                else changes.assignmentChanged(c.getEntityId());
+            } else {
+                if (c.isDeleted()) changes.taskDeleted(c.getEntityId());
+                else changes.taskChanged(c.getEntityId());
+            }
+        }
+
+        List<AssignmentPlanView> views = getPlanView(today);
 
-        Map<UUID, LocalDate> effectiveStartDates = new HashMap<>();
-        for (Assignment a : assignments) {
-            effectiveStartDates.put(a.getId(), effectiveStartDate(a.getStartDate(), today));
+        // hoursConsumedByEarlierAssignments depends on every earlier assignment, so every summary
+        // from the first touched one onward may have moved. Creating, deleting or re-dating an
+        // assignment can reorder the list, so any assignment-level change resends them all.
+        int from = views.size();
+        if (!changes.assignments().isEmpty() || !changes.deletedAssignments().isEmpty()) from = 0;
+
+        List<Task> changedTasks = new ArrayList<>();
+        for (int i = 0; i < views.size(); i++) {
+            for (Task t : views.get(i).tasks()) {
+                if (!changes.tasks().contains(t.getId())) continue;
+                changedTasks.add(t);
+                from = Math.min(from, i);
+            }
         }
 
+        return new PlanDelta(
+                current.revision(),
+                false,
+                views.subList(from, views.size()),
+                changedTasks,
+                List.copyOf(changes.deletedAssignments()),
+                List.copyOf(changes.deletedTasks())
+        );
+    }
+
+    private PlanWriteStats replan(UUID userId, LocalDate today, PlanChanges changes) {
+        PlanningSnapshot snapshot = loadSnapshot(userId, today);
+        Availability availability = getOrCreateAvailability(userId);
+
         // Apply missed shift per assignment before global plan
-        Map<UUID, List<Task>> tasksByAssignmentId = groupTasksByAssignmentId(allTasks);
-        for (UUID id : tasksByAssignmentId.keySet()) {
-
-            Assignment assignment = assignments.stream()
-                    .filter(a -> a.getId().equals(id))
-                    .findFirst().orElse(null);
-            LocalDate effectiveStart = assignment != null
-                    ? effectiveStartDate(assignment.getStartDate(), today)
-                    : today;
-
-            List<Task> shifted = plannerService.applyMissedTaskShift(
-                    tasksByAssignmentId.get(id), effectiveStart
-            );
-            tasksByAssignmentId.put(id, shifted);
+        Map<UUID, List<Task>> tasksByAssignmentId = new HashMap<>();
+        for (Assignment a : snapshot.assignments()) {
+            List<Task> tasks = snapshot.tasksOf(a.getId());
+            if (tasks.isEmpty()) continue;
+            tasksByAssignmentId.put(a.getId(), plannerService.applyMissedTaskShift(tasks, snapshot.effectiveStart(a.getId())));
         }
 
-        Map<UUID, List<Task>> planned = plannerService.buildGlobalPlan(
-                assignments, tasksByAssignmentId, availability, today, effectiveStartDates
+        // Only assignments from the first changed one onward are re-allocated; the checkpoint is
+        // re-validated against what we just loaded, so a stale one can't produce a different plan.
+        IncrementalPlan result = plannerService.buildGlobalPlanIncremental(
+                snapshot.assignments(), tasksByAssignmentId, availability, today, snapshot.effectiveStartDates(),
+                checkpointStore.get(userId)
         );
+        checkpointStore.put(userId, result.checkpoint());
+        Map<UUID, List<Task>> planned = result.plan();
+
+        // The planner hands back detached copies. Diff them against the rows we loaded and only
+        // write the ones whose schedule moved; untouched rows never reach the UPDATE batch.
+
+        int plannedCount = 0;
+        List<Task> changed = new ArrayList<>();
+        for (List<Task> list : planned.values()) {
+            for (Task p : list) {
+                plannedCount++;
+                Task loaded = snapshot.task(p.getId());
+                if (loaded == null) {
+                    changed.add(p);
+                    continue;
+                }
+
+                // transient, never persisted - keep it in step for readers in this transaction
+                loaded.setUnscheduledReason(p.getUnscheduledReason());
+
+                if (Objects.equals(loaded.getTargetDate(), p.getTargetDate())
+                        && loaded.isUnscheduled() == p.isUnscheduled()) continue;
+
+                loaded.setTargetDate(p.getTargetDate());
+                loaded.setUnscheduled(p.isUnscheduled());
+                changed.add(loaded);
+            }
+        }
+        if (!changed.isEmpty()) taskRepository.saveAll(changed);
+        changed.forEach(t -> changes.taskChanged(t.getId()));
 
-        List<Task> flattened = new ArrayList<>();
-        for (List<Task> list : planned.values()) flattened.addAll(list);
-        taskRepository.saveAll(flattened);
+        PlanWriteStats stats = new PlanWriteStats(plannedCount, changed.size(), result.replayedFrom());
+        log.debug("Replanned user {}: {}", userId, stats);
+        return stats;
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<AssignmentPlanView> getPlanView(LocalDate today) {
         UUID userId = CurrentUser.requireUserId();
-        List<Assignment> assignments = assignmentRepository
-                .findAllByUserIdOrderByDueDateAsc(userId);
-
-        assignments.sort(Comparator
-                .comparing(Assignment::getDueDate)
-                .thenComparing(a -> Optional.ofNullable(a.getCreatedAt()).orElse(Instant.EPOCH))
-                .thenComparing(Assignment::getId));
-
-        List<UUID> ids = assignments.stream().map(Assignment::getId).toList();
-        List<Task> allTasks = ids.isEmpty()
-                ? List.of()
-                : taskRepository.findAllByAssignmentIdIn(ids);
+        PlanningSnapshot snapshot = loadSnapshot(userId, today);
+        List<Assignment> assignments = snapshot.assignments();
 
-        Map<UUID, List<Task>> grouped = groupTasksByAssignmentId(allTasks);
+        int[] consumed = hoursConsumedByEarlierAssignments(snapshot);
 
-        List<AssignmentPlanView> result = new ArrayList<>();
-        for (Assignment a : assignments) {
-            List<Task> tasks = grouped.getOrDefault(a.getId(), List.of());
+        List<AssignmentPlanView> result = new ArrayList<>(assignments.size());
+        for (int i = 0; i < assignments.size(); i++) {
+            Assignment a = assignments.get(i);
+            List<Task> tasks = snapshot.tasksOf(a.getId());
             PanicStatus status = plannerService.computePanicStatusV2(a, tasks, today);
-            int consumed = hoursConsumedByEarlierAssignments(assignments, grouped, a, today);
-            result.add(new AssignmentPlanView(a, status, tasks, consumed));
+            result.add(new AssignmentPlanView(a, status, tasks, consumed[i]));
         }
         return result;
     }
@@ -269,17 +486,86 @@ public class PlanningOrchestratorServiceImpl implements PlanningOrchestratorServ
     // Helpers
     // -----------------------
 
+    /**
+     * Replans only if the mutation touched something the planner reads. Plan-neutral edits
+     * have already persisted their row; skipping here avoids loading the whole task graph.
+     */
+    private void replanIfAffected(Set<PlanInput> touched, UUID userId, LocalDate today, PlanChanges changes) {
+        if (touched.isEmpty()) return;
+        replan(userId, today, changes);
+    }
+
+    /**
+     * Every write that can change what GET /plan returns ends here: bumps the persisted
+     * revision (the ETag) in this transaction, logs the changed rows under it for
+     * GET /plan/changes and drops this instance's cached view early. A no-op edit changes nothing.
+     */
+    private void planChanged(UUID userId, PlanChanges changes) {
+        if (changes.isEmpty()) return;
+
+        userRepository.incrementPlanRevision(userId);
+        // the UPDATE above holds the user's row lock, so nobody else can take this revision
+        long revision = userRepository.findPlanRevisionById(userId).orElse(0L);
+
+        List<PlanChange> entries = new ArrayList<>();
+        changes.assignments().forEach(id -> entries.add(change(userId, revision, PlanChangeType.ASSIGNMENT, id, false)));
+        changes.tasks().forEach(id -> entries.add(change(userId, revision, PlanChangeType.TASK, id, false)));
+        changes.deletedAssignments().forEach(id -> entries.add(change(userId, revision, PlanChangeType.ASSIGNMENT, id, true)));
+        changes.deletedTasks().forEach(id -> entries.add(change(userId, revision, PlanChangeType.TASK, id, true)));
+        planChangeRepository.saveAll(entries);
+
+        // Keep the last RETAINED_REVISIONS revisions; clients further behind get a full reload
+        if (revision % PRUNE_EVERY_REVISIONS == 0 && revision > RETAINED_REVISIONS) {
+            long floor = revision - RETAINED_REVISIONS;
+            planChangeRepository.deleteUpToRevision(userId, floor);
+            userRepository.raisePlanChangesFloor(userId, floor);
+        }
+
+        planViewCache.invalidate(userId);
+    }
+
+    private PlanChange change(UUID userId, long revision, PlanChangeType type, UUID entityId, boolean deleted) {
+        return PlanChange.builder()
+                .userId(userId)
+                .revision(revision)
+                .entityType(type)
+                .entityId(entityId)
+                .deleted(deleted)
+                .build();
+    }
+
+    private boolean sameHours(Availability a, Availability b) {
+        return a.getMonHours() == b.getMonHours()
+                && a.getTueHours() == b.getTueHours()
+                && a.getWedHours() == b.getWedHours()
+                && a.getThuHours() == b.getThuHours()
+                && a.getFriHours() == b.getFriHours()
+                && a.getSatHours() == b.getSatHours()
+                && a.getSunHours() == b.getSunHours();
+    }
+
     private Assignment requireOwnedAssignment(UUID assignmentId, UUID userId) {
         return assignmentRepository.findByIdAndUserId(assignmentId, userId)
                 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
     }
 
-    private Map<UUID, List<Task>> groupTasksByAssignmentId(List<Task> tasks) {
-        Map<UUID, List<Task>> map = new HashMap<>();
-        for (Task t : tasks) {
-            map.computeIfAbsent(t.getAssignmentId(), k -> new ArrayList<>()).add(t);
+    /** Ownership check for edits that don't need the assignment row itself. */
+    private void requireOwnership(UUID assignmentId) {
+        if (!context.ownsAssignment(assignmentId)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
         }
-        return map;
+    }
+
+    /** Loads the user's assignments and their tasks once, indexed for every planning stage. */
+    private PlanningSnapshot loadSnapshot(UUID userId, LocalDate today) {
+        List<Assignment> assignments = assignmentRepository.findAllByUserIdOrderByDueDateAsc(userId);
+
+        List<UUID> ids = assignments.stream().map(Assignment::getId).toList();
+        List<Task> tasks = ids.isEmpty()
+                ? List.of()
+                : taskRepository.findAllByAssignmentIdIn(ids);
+
+        return PlanningSnapshot.of(today, assignments, tasks);
     }
 
     private Task requireTaskInAssignment(UUID taskId, UUID assignmentId) {
@@ -304,42 +590,39 @@ public class PlanningOrchestratorServiceImpl implements PlanningOrchestratorServ
         return Math.max(1, (int) days + 1);
     }
 
-    private int hoursConsumedByEarlierAssignments(
-            List<Assignment> sortedAssignments,
-            Map<UUID, List<Task>> plannedTasksByAssignmentId,
-            Assignment current,
-            LocalDate today
-    ) {
-        LocalDate end = current.getDueDate().minusDays(1);
+    /**
+     * For each assignment (in planning order), the open effort of all earlier assignments
+     * that is planned between today and the day before its due date.
+     *
+     * One sweep: each assignment first reads the running per-day totals, then adds its own
+     * tasks for the ones after it - O((assignments + tasks) log days) instead of rescanning
+     * every earlier assignment's tasks per assignment.
+     */
+    private int[] hoursConsumedByEarlierAssignments(PlanningSnapshot snapshot) {
+        List<Assignment> sortedAssignments = snapshot.assignments();
+        LocalDate today = snapshot.today();
+
+        int[] consumed = new int[sortedAssignments.size()];
+        if (sortedAssignments.isEmpty()) return consumed;
 
-        int total = 0;
+        LocalDate lastEnd = today;
         for (Assignment a : sortedAssignments) {
-            if (a.getId().equals(current.getId())) break;
+            LocalDate end = a.getDueDate().minusDays(1);
+            if (end.isAfter(lastEnd)) lastEnd = end;
+        }
+        EffortByDay planned = new EffortByDay(today, lastEnd);
 
-            List<Task> tasks = plannedTasksByAssignmentId.getOrDefault(a.getId(), List.of());
-            for (Task t : tasks) {
-                if (t.isDone()) continue;
-                LocalDate d = t.getTargetDate();
-                if (d == null) continue;
+        for (int i = 0; i < sortedAssignments.size(); i++) {
+            Assignment a = sortedAssignments.get(i);
 
-                boolean withinWindow =
-                        (d.isEqual(today) || d.isAfter(today)) &&
-                                (d.isEqual(end) || d.isBefore(end));
+            LocalDate end = a.getDueDate().minusDays(1);
+            consumed[i] = planned.sumThrough(end);
 
-                if (withinWindow) total += t.getEffortHours();
+            for (Task t : snapshot.tasksOf(a.getId())) {
+                if (t.isDone() || t.getTargetDate() == null) continue;
+                planned.add(t.getTargetDate(), t.getEffortHours());
             }
         }
-        return total;
-    }
-
-    /**
-     * Returns the effective start date for planning.
-     * If startDate is set and in the future, use it. Otherwise use today. By Claude
-     */
-    private LocalDate effectiveStartDate(LocalDate startDate, LocalDate today) {
-        if (startDate != null && startDate.isAfter(today)) {
-            return startDate;
-        }
-        return today;
+        return consumed;
     }
 }
\ No newline at end of file
@@ -0,0 +1,28 @@
+package com.applicationplanner.api.util;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Fixed partitioning of users for notification work. Instances lease whole shards, so
+ * the count never changes with cluster size; only the shard-to-instance assignment does.
+ */
+public final class NotificationShards {
+
+    public static final int COUNT = 64;
+
+    public static final Set<Integer> ALL = IntStream.range(0, COUNT).boxed().collect(Collectors.toUnmodifiableSet());
+
+    private NotificationShards() {}
+
+    /**
+     * Shard of a user: the UUID's leading 16 bits mod {@link #COUNT}.
+     * V13 backfills existing users with the same expression in SQL.
+     */
+    public static int of(UUID userId) {
+        int leading16 = (int) (userId.getMostSignificantBits() >>> 48);
+        return leading16 % COUNT;
+    }
+}
@@ -1,30 +1,102 @@
 package com.applicationplanner.api.util;
 
-import com.applicationplanner.api.repository.UserRepository;
+import com.applicationplanner.api.planner.UserPlanningContext;
 import com.applicationplanner.api.security.CurrentUser;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
-import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.UUID;
 
+/**
+ * Works out the current user's "today" without a database read on the request path.
+ *
+ * The timezone is the "tz" claim of the request's token whenever it carries one: every
+ * timezone change reissues the token, so the claim is the newest value the request can know
+ * and no instance-local state may override it. Only tokens issued before the claim existed
+ * fall back to the user's row via UserPlanningContext; that value is cached for a token
+ * lifetime, which is as long as such tokens can still be in use.
+ */
 @Component
 public class TimezoneResolver {
 
-    private final UserRepository userRepository;
+    private final UserPlanningContext context;
+    private final Clock clock;
+    private final Duration entryTtl;
+    private final Map<UUID, Entry> timezones;
 
-    public TimezoneResolver(UserRepository userRepository) {
-        this.userRepository = userRepository;
+    @Autowired
+    public TimezoneResolver(
+            UserPlanningContext context,
+            @Value("${app.auth.jwt.ttl-seconds}") long tokenTtlSeconds,
+            @Value("${app.auth.timezone-cache-size:10000}") int maxEntries
+    ) {
+        this(context, Duration.ofSeconds(tokenTtlSeconds), maxEntries, Clock.systemUTC());
+    }
+
+    TimezoneResolver(UserPlanningContext context, Duration entryTtl, int maxEntries, Clock clock) {
+        this.context = context;
+        this.entryTtl = entryTtl;
+        this.clock = clock;
+        this.timezones = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
     }
 
     /**
-     * Resolves today's date using the current user's stored timezone.
+     * Resolves today's date using the current user's timezone.
      * Falls back to UTC if the user has no timezone set. by Claude
      */
     public LocalDate resolveToday() {
         UUID userId = CurrentUser.requireUserId();
-        return userRepository.findById(userId)
-                .map(user -> TimezoneUtil.resolveToday(user.getTimezone()))
-                .orElse(LocalDate.now(ZoneId.of("UTC")));
+        return TimezoneUtil.resolveToday(timezoneOf(userId));
+    }
+
+    /**
+     * Records a timezone the user just saved, so claim-less tokens served by this instance
+     * pick it up; tokens with a claim are reissued by the caller instead.
+     */
+    public void timezoneChanged(UUID userId, String timezone) {
+        put(userId, timezone);
     }
-}
\ No newline at end of file
+
+    private String timezoneOf(UUID userId) {
+        String claimed = CurrentUser.tokenTimezone();
+        if (claimed != null) return claimed;
+
+        String cached = get(userId);
+        if (cached != null) return cached;
+
+        // Tokens issued before the claim existed, or for users without a row
+        String stored = context.user()
+                .map(user -> user.getTimezone() != null ? user.getTimezone() : "UTC")
+                .orElse("UTC");
+        put(userId, stored);
+        return stored;
+    }
+
+    private synchronized String get(UUID userId) {
+        Entry e = timezones.get(userId);
+        if (e == null) return null;
+        if (clock.instant().isAfter(e.expiresAt())) {
+            timezones.remove(userId);
+            return null;
+        }
+        return e.timezone();
+    }
+
+    private synchronized void put(UUID userId, String timezone) {
+        timezones.put(userId, new Entry(timezone, clock.instant().plus(entryTtl)));
+    }
+
+    private record Entry(String timezone, Instant expiresAt) {}
+}
@@ -1,7 +1,10 @@
 package com.applicationplanner.api.util;
 
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.time.ZoneId;
+import java.time.ZonedDateTime;
 
 public final class TimezoneUtil {
 
@@ -20,4 +23,33 @@ public final class TimezoneUtil {
             return LocalDate.now(ZoneId.of("UTC"));
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the first instant strictly after {@code after} at which the wall clock in
+     * {@code tz} reads {@code localTime} (HH:mm). Resolved per calendar day, so DST shifts
+     * are handled: a time skipped by a spring-forward gap fires just after the gap, and a
+     * time repeated by a fall-back overlap fires once, at the earlier offset.
+     * Falls back to UTC if the timezone is null, blank, or invalid.
+     */
+    public static Instant nextOccurrenceAfter(String localTime, String tz, Instant after) {
+        ZoneId zone = safeZone(tz);
+        LocalTime time = LocalTime.parse(localTime);
+        LocalDate day = after.atZone(zone).toLocalDate();
+
+        Instant next = ZonedDateTime.of(day, time, zone).toInstant();
+        while (!next.isAfter(after)) {
+            day = day.plusDays(1);
+            next = ZonedDateTime.of(day, time, zone).toInstant();
+        }
+        return next;
+    }
+
+    private static ZoneId safeZone(String tz) {
+        if (tz == null || tz.isBlank()) return ZoneId.of("UTC");
+        try {
+            return ZoneId.of(tz);
+        } catch (Exception e) {
+            return ZoneId.of("UTC");
+        }
+    }
+}
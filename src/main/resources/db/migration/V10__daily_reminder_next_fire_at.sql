@@ -0,0 +1,17 @@
+-- Precomputed next daily reminder (UTC) so the per-minute job reads only due users
+ALTER TABLE users ADD COLUMN daily_reminder_next_fire_at TIMESTAMP WITH TIME ZONE;
+
+CREATE INDEX idx_users_daily_reminder_next_fire_at ON users(daily_reminder_next_fire_at);
+
+-- Backfill today's local reminder time; one already past is skipped and rolled forward on the first tick.
+-- Unknown zone names fall back to UTC, matching NotificationScheduler.
+UPDATE users u
+SET daily_reminder_next_fire_at =
+        ((now() AT TIME ZONE z.zone)::date + u.daily_reminder_time::time) AT TIME ZONE z.zone
+FROM (
+         SELECT id, COALESCE((SELECT name FROM pg_timezone_names WHERE name = users.timezone), 'UTC') AS zone
+         FROM users
+     ) z
+WHERE z.id = u.id
+  AND u.notifications_enabled
+  AND u.daily_reminder_enabled;
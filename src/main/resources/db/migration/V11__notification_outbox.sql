@@ -0,0 +1,21 @@
+-- Push notifications queued by the scheduler jobs and delivered by the outbox workers
+CREATE TABLE notification_outbox (
+                                     id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+                                     user_id UUID NOT NULL,
+                                     device_token VARCHAR(255) NOT NULL,
+                                     title VARCHAR(255) NOT NULL,
+                                     body TEXT NOT NULL,
+                                     status VARCHAR(16) NOT NULL DEFAULT 'PENDING',
+                                     attempts INT NOT NULL DEFAULT 0,
+                                     next_attempt_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                                     last_error VARCHAR(255),
+                                     created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+                                     CONSTRAINT fk_notification_outbox_user
+                                         FOREIGN KEY (user_id)
+                                             REFERENCES users(id)
+                                             ON DELETE CASCADE
+);
+
+-- Workers only ever scan pending rows in due order
+CREATE INDEX idx_notification_outbox_pending ON notification_outbox(next_attempt_at) WHERE status = 'PENDING';
@@ -0,0 +1,23 @@
+-- Last panic status evaluated / notified per assignment, so at-risk alerts fire on change or after a cool-down
+CREATE TABLE assignment_alert_ledger (
+                                         id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+                                         assignment_id UUID NOT NULL,
+                                         user_id UUID NOT NULL,
+                                         status VARCHAR(16) NOT NULL,
+                                         evaluated_revision BIGINT NOT NULL,
+                                         evaluated_on DATE NOT NULL,
+                                         notified_status VARCHAR(16),
+                                         notified_at TIMESTAMP WITH TIME ZONE,
+
+                                         CONSTRAINT fk_assignment_alert_ledger_assignment
+                                             FOREIGN KEY (assignment_id)
+                                                 REFERENCES assignments(id)
+                                                 ON DELETE CASCADE,
+                                         CONSTRAINT fk_assignment_alert_ledger_user
+                                             FOREIGN KEY (user_id)
+                                                 REFERENCES users(id)
+                                                 ON DELETE CASCADE
+);
+
+CREATE UNIQUE INDEX uq_assignment_alert_ledger_assignment ON assignment_alert_ledger(assignment_id);
+CREATE INDEX idx_assignment_alert_ledger_user ON assignment_alert_ledger(user_id);
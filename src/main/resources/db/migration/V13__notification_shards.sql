@@ -0,0 +1,19 @@
+-- Users are split into 64 fixed shards; instances lease shards so each user's notifications run on one node.
+-- Must match NotificationShards.of: leading 16 bits of the UUID mod 64.
+ALTER TABLE users ADD COLUMN notification_shard INT NOT NULL DEFAULT 0;
+UPDATE users SET notification_shard = ('x' || substr(id::text, 1, 4))::bit(16)::int % 64;
+CREATE INDEX idx_users_notification_shard ON users(notification_shard);
+
+CREATE TABLE notification_shard_leases (
+                                           shard INT PRIMARY KEY,
+                                           owner VARCHAR(128),
+                                           lease_until TIMESTAMP WITH TIME ZONE
+);
+
+INSERT INTO notification_shard_leases (shard) SELECT generate_series(0, 63);
+
+-- Live instances, for sizing each one's share of shards
+CREATE TABLE notification_nodes (
+                                    node_id VARCHAR(128) PRIMARY KEY,
+                                    heartbeat_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
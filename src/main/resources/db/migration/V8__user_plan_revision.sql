@@ -0,0 +1,2 @@
+-- Per-user plan revision, bumped by every plan mutation; backs the GET /plan ETag
+ALTER TABLE users ADD COLUMN plan_revision BIGINT NOT NULL DEFAULT 0;
\ No newline at end of file
@@ -0,0 +1,20 @@
+-- Change log behind GET /plan/changes: one row per assignment/task touched at a plan revision
+CREATE TABLE plan_changes (
+                              id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+                              user_id UUID NOT NULL,
+                              revision BIGINT NOT NULL,
+                              entity_type VARCHAR(16) NOT NULL,
+                              entity_id UUID NOT NULL,
+                              deleted BOOLEAN NOT NULL DEFAULT false,
+
+                              CONSTRAINT fk_plan_changes_user
+                                  FOREIGN KEY (user_id)
+                                      REFERENCES users(id)
+                                      ON DELETE CASCADE
+);
+
+CREATE INDEX idx_plan_changes_user_revision ON plan_changes(user_id, revision);
+
+-- Revisions at or below the floor are not fully logged (they predate the log or were pruned)
+ALTER TABLE users ADD COLUMN plan_changes_floor BIGINT NOT NULL DEFAULT 0;
+UPDATE users SET plan_changes_floor = plan_revision;
\ No newline at end of file
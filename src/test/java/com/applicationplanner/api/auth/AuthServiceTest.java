@@ -0,0 +1,79 @@
+package com.applicationplanner.api.auth;
+
+import com.applicationplanner.api.enums.AuthProvider;
+import com.applicationplanner.api.model.User;
+import com.applicationplanner.api.record.GoogleUserPayload;
+import com.applicationplanner.api.repository.UserIdentityRepository;
+import com.applicationplanner.api.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.transaction.Transactional;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class AuthServiceTest {
+
+    @Autowired private AuthService authService;
+    @Autowired private UserRepository userRepository;
+    @Autowired private UserIdentityRepository identityRepository;
+    @Autowired private EntityManager entityManager;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setup() {
+        statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void returningLogin_readsIdentityAndUserInOneQuery_andWritesNothingWhenUnchanged() {
+        User first = authService.loginWithGoogle(new GoogleUserPayload("sub-1", "a@test.com", "Ada"));
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+
+        User again = authService.loginWithGoogle(new GoogleUserPayload("sub-1", "a@test.com", "Ada"));
+        entityManager.flush();
+
+        assertEquals(first.getId(), again.getId());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityUpdateCount());
+    }
+
+    @Test
+    void returningLogin_updatesChangedName() {
+        User first = authService.loginWithGoogle(new GoogleUserPayload("sub-2", "b@test.com", "Bea"));
+        entityManager.flush();
+        entityManager.clear();
+
+        authService.loginWithGoogle(new GoogleUserPayload("sub-2", "b@test.com", "Beatrice"));
+        entityManager.flush();
+        entityManager.clear();
+
+        assertEquals("Beatrice", userRepository.findById(first.getId()).orElseThrow().getDisplayName());
+    }
+
+    @Test
+    void insertIfAbsent_leavesAnExistingLinkAlone() {
+        User user = authService.loginDev("c@test.com", "Cy");
+        User other = userRepository.save(User.builder().email("other@test.com").build());
+
+        int linked = identityRepository.insertIfAbsent(UUID.randomUUID(), other.getId(),
+                AuthProvider.DEV.name(), "c@test.com", "c@test.com", OffsetDateTime.now());
+
+        assertEquals(0, linked);
+        entityManager.clear();
+        assertEquals(user.getId(),
+                identityRepository.findWithUser(AuthProvider.DEV, "c@test.com").orElseThrow().getUser().getId());
+    }
+}
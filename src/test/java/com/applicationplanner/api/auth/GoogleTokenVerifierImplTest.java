@@ -0,0 +1,174 @@
+package com.applicationplanner.api.auth;
+
+import com.applicationplanner.api.record.GoogleUserPayload;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyFactory;
+import java.security.Signature;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.util.Base64;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the code exchange and ID token verification against local stubs of Google's token
+ * and certs endpoints.
+ */
+class GoogleTokenVerifierImplTest {
+
+    private HttpServer server;
+    private volatile String lastForm;
+    private volatile long delayMs;
+    private volatile String certsJson = "{}";
+    private final AtomicInteger certsFetches = new AtomicInteger();
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+
+    @BeforeEach
+    void startStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/token", exchange -> {
+            try {
+                clientPorts.add(exchange.getRemoteAddress().getPort());
+                lastForm = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+                Thread.sleep(delayMs);
+
+                byte[] reply = ("{\"access_token\":\"at\",\"token_type\":\"Bearer\",\"expires_in\":3600,"
+                        + "\"id_token\":\"" + idToken() + "\"}").getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, reply.length);
+                exchange.getResponseBody().write(reply);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                exchange.close();
+            }
+        });
+        server.createContext("/certs", exchange -> {
+            try {
+                certsFetches.incrementAndGet();
+                Thread.sleep(delayMs);
+                byte[] reply = certsJson.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.getResponseHeaders().add("Cache-Control", "public, max-age=3600");
+                exchange.sendResponseHeaders(200, reply.length);
+                exchange.getResponseBody().write(reply);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopStub() {
+        server.stop(0);
+    }
+
+    @Test
+    void exchangeCode_postsToConfiguredTokenUrl_andReadsIdToken() {
+        GoogleUserPayload payload = verifier(10_000).exchangeCode("auth-code");
+
+        assertEquals(new GoogleUserPayload("google-sub", "student@test.com", "Student"), payload);
+        assertTrue(lastForm.contains("code=auth-code"));
+        assertTrue(lastForm.contains("client_id=web-client"));
+    }
+
+    @Test
+    void exchangeCode_reusesOneConnectionAcrossLogins() {
+        GoogleTokenVerifierImpl verifier = verifier(10_000);
+
+        for (int i = 0; i < 5; i++) {
+            verifier.exchangeCode("auth-code-" + i);
+        }
+        assertEquals(1, clientPorts.size());
+    }
+
+    @Test
+    void exchangeCode_givesUpAfterReadTimeout() {
+        delayMs = 2_000;
+        GoogleTokenVerifierImpl verifier = verifier(200);
+
+        long start = System.nanoTime();
+        assertThrows(RuntimeException.class, () -> verifier.exchangeCode("auth-code"));
+        assertTrue(System.nanoTime() - start < 1_500_000_000L);
+    }
+
+    @Test
+    void verify_givesUpOnAHungCertsEndpointAfterReadTimeout() {
+        delayMs = 2_000;
+        GoogleTokenVerifierImpl verifier = verifier(200);
+        long exp = System.currentTimeMillis() / 1000 + 600;
+        String idToken = idToken("{\"iss\":\"https://accounts.google.com\",\"aud\":\"web-client\","
+                + "\"sub\":\"google-sub\",\"iat\":" + (exp - 600) + ",\"exp\":" + exp + "}");
+
+        long start = System.nanoTime();
+        assertThrows(RuntimeException.class, () -> verifier.verify(idToken));
+        assertTrue(System.nanoTime() - start < 1_500_000_000L);
+    }
+
+    @Test
+    void verify_acceptsATokenSignedWithAServedCert_andFetchesCertsOncePerMaxAge() throws Exception {
+        String pem = resource("google/signing-cert.pem");
+        certsJson = "{\"kid-1\":\"" + pem.replace("\n", "\\n") + "\"}";
+        GoogleTokenVerifierImpl verifier = verifier(10_000);
+
+        for (int i = 0; i < 3; i++) {
+            GoogleUserPayload payload = verifier.verify(signedIdToken("web-client"));
+            assertEquals(new GoogleUserPayload("google-sub", "student@test.com", "Student"), payload);
+        }
+        assertEquals(1, certsFetches.get());
+        assertThrows(IllegalArgumentException.class, () -> verifier.verify(signedIdToken("other-client")));
+    }
+
+    private GoogleTokenVerifierImpl verifier(int readTimeoutMs) {
+        String base = "http://127.0.0.1:" + server.getAddress().getPort();
+        return new GoogleTokenVerifierImpl(
+                "web-client", "secret", "android-client", "web-client", "http://localhost/callback",
+                base + "/token", base + "/certs", 1_000, readTimeoutMs);
+    }
+
+    private static String idToken() {
+        return idToken("{\"sub\":\"google-sub\",\"email\":\"student@test.com\",\"name\":\"Student\"}");
+    }
+
+    private static String signedIdToken(String audience) throws Exception {
+        long exp = System.currentTimeMillis() / 1000 + 600;
+        String claims = "{\"iss\":\"https://accounts.google.com\",\"aud\":\"" + audience + "\","
+                + "\"sub\":\"google-sub\",\"email\":\"student@test.com\",\"name\":\"Student\","
+                + "\"iat\":" + (exp - 600) + ",\"exp\":" + exp + "}";
+        String stubbed = idToken(claims);
+        String unsigned = stubbed.substring(0, stubbed.lastIndexOf('.'));
+
+        String key = resource("google/signing-key.pem").replaceAll("-----[A-Z ]+-----|\\s", "");
+        Signature rs256 = Signature.getInstance("SHA256withRSA");
+        rs256.initSign(KeyFactory.getInstance("RSA")
+                .generatePrivate(new PKCS8EncodedKeySpec(Base64.getDecoder().decode(key))));
+        rs256.update(unsigned.getBytes(StandardCharsets.US_ASCII));
+        return unsigned + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(rs256.sign());
+    }
+
+    private static String resource(String name) throws IOException {
+        try (InputStream in = GoogleTokenVerifierImplTest.class.getClassLoader().getResourceAsStream(name)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static String idToken(String claimsJson) {
+        Base64.Encoder b64 = Base64.getUrlEncoder().withoutPadding();
+        String header = b64.encodeToString("{\"alg\":\"RS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+        String claims = b64.encodeToString(claimsJson.getBytes(StandardCharsets.UTF_8));
+        return header + "." + claims + "." + b64.encodeToString("sig".getBytes(StandardCharsets.UTF_8));
+    }
+}
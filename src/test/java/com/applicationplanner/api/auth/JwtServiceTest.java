@@ -0,0 +1,120 @@
+package com.applicationplanner.api.auth;
+
+import com.applicationplanner.api.record.TokenPrincipal;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtServiceTest {
+
+    private static final String SECRET = "THIS_IS_A_LONG_TEST_SECRET_123456789012345678901234567890";
+    private static final Instant T0 = Instant.parse("2026-03-01T10:00:00Z");
+
+    private final MutableClock clock = new MutableClock(T0);
+    private final UUID userId = UUID.randomUUID();
+
+    @Test
+    void parseUserId_cachesVerifiedToken_andServesRepeatsFromCache() {
+        JwtService jwt = new JwtService(SECRET, 3600, 10, clock);
+        String token = jwt.issueToken(userId);
+
+        assertEquals(userId, jwt.parseUserId(token));
+        assertEquals(userId, jwt.parseUserId(token));
+        assertEquals(1, jwt.cachedPrincipals());
+    }
+
+    @Test
+    void parse_returnsTimezoneClaim_whenIssuedWithOne() {
+        JwtService jwt = new JwtService(SECRET, 3600, 10, clock);
+
+        assertEquals(new TokenPrincipal(userId, "Europe/Berlin"), jwt.parse(jwt.issueToken(userId, "Europe/Berlin")));
+        assertEquals(new TokenPrincipal(userId, null), jwt.parse(jwt.issueToken(userId)));
+    }
+
+    @Test
+    void parseUserId_honoursExpiryExactly_evenWhenCached() {
+        JwtService jwt = new JwtService(SECRET, 60, 10, clock);
+        String token = jwt.issueToken(userId);
+        assertEquals(userId, jwt.parseUserId(token));
+
+        clock.advance(Duration.ofSeconds(60));
+        assertEquals(userId, jwt.parseUserId(token)); // exp itself is still valid
+
+        clock.advance(Duration.ofMillis(1));
+        assertThrows(ExpiredJwtException.class, () -> jwt.parseUserId(token));
+        assertEquals(0, jwt.cachedPrincipals());
+    }
+
+    @Test
+    void parseUserId_neverCachesRejectedTokens() {
+        JwtService jwt = new JwtService(SECRET, 3600, 10, clock);
+        JwtService otherKey = new JwtService(SECRET.replace('T', 'X'), 3600, 10, clock);
+        String forged = otherKey.issueToken(userId);
+
+        assertThrows(JwtException.class, () -> jwt.parseUserId(forged));
+        assertThrows(JwtException.class, () -> jwt.parseUserId(forged));
+        assertEquals(0, jwt.cachedPrincipals());
+    }
+
+    @Test
+    void parseUserId_boundsTheCache() {
+        JwtService jwt = new JwtService(SECRET, 3600, 2, clock);
+
+        for (int i = 0; i < 5; i++) {
+            UUID user = UUID.randomUUID();
+            assertEquals(user, jwt.parseUserId(jwt.issueToken(user)));
+            assertTrue(jwt.cachedPrincipals() <= 2);
+        }
+        assertEquals(2, jwt.cachedPrincipals());
+    }
+
+    @Test
+    void parseUserId_overflowSweepsExpiredEntriesBeforeLiveOnes() {
+        JwtService jwt = new JwtService(SECRET, 60, 3, clock);
+        for (int i = 0; i < 3; i++) {
+            jwt.parseUserId(jwt.issueToken(UUID.randomUUID()));
+        }
+
+        clock.advance(Duration.ofSeconds(61));
+        jwt.parseUserId(jwt.issueToken(userId));
+
+        // only the three expired entries went; the live one that overflowed the cache stayed
+        assertEquals(1, jwt.cachedPrincipals());
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration d) {
+            now = now.plus(d);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
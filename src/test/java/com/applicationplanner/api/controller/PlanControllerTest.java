@@ -1,13 +1,19 @@
 package com.applicationplanner.api.controller;
 
+import com.applicationplanner.api.planner.PlanViewCache;
+import com.applicationplanner.api.record.PlanDelta;
+import com.applicationplanner.api.record.PlanEdit;
+import com.applicationplanner.api.record.PlanSnapshot;
 import com.applicationplanner.api.service.PlanningOrchestratorService;
 import com.applicationplanner.api.util.WithMockUserId;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
@@ -15,12 +21,20 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.util.List;
+import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -34,11 +48,17 @@ class PlanControllerTest {
     @MockitoBean
     private PlanningOrchestratorService orchestrator;
 
+    @Autowired
+    private PlanViewCache planViewCache;
+
     @BeforeEach
     void setup() {
         WithMockUserId.set();
+        // the cache bean outlives each test's mock; start every test cold
+        planViewCache.invalidate(WithMockUserId.TEST_USER_ID);
         // stub default return so controller mapping doesn't blow up
-        when(orchestrator.getPlanView(any())).thenReturn(List.of());
+        when(orchestrator.getPlanRevision()).thenReturn(7L);
+        when(orchestrator.getPlanSnapshot(any())).thenReturn(new PlanSnapshot(7, List.of()));
     }
 
     @AfterEach
@@ -54,7 +74,7 @@ class PlanControllerTest {
         mockMvc.perform(get("/plan").param("tz", tz))
                 .andExpect(status().isOk());
 
-        verify(orchestrator).getPlanView(eq(expected));
+        verify(orchestrator).getPlanSnapshot(eq(expected));
     }
 
     @Test
@@ -64,7 +84,7 @@ class PlanControllerTest {
         mockMvc.perform(get("/plan"))
                 .andExpect(status().isOk());
 
-        verify(orchestrator).getPlanView(eq(expected));
+        verify(orchestrator).getPlanSnapshot(eq(expected));
     }
 
     @Test
@@ -74,6 +94,123 @@ class PlanControllerTest {
         mockMvc.perform(get("/plan").param("tz", "Bad/Zone"))
                 .andExpect(status().isOk());
 
-        verify(orchestrator).getPlanView(eq(expected));
+        verify(orchestrator).getPlanSnapshot(eq(expected));
+    }
+
+    @Test
+    void getPlan_repeatedWithoutWrites_isServedFromCache() throws Exception {
+        mockMvc.perform(get("/plan")).andExpect(status().isOk());
+        mockMvc.perform(get("/plan")).andExpect(status().isOk());
+
+        verify(orchestrator, times(1)).getPlanSnapshot(any());
+    }
+
+    @Test
+    void getPlan_afterRevisionMoves_reloads() throws Exception {
+        mockMvc.perform(get("/plan")).andExpect(status().isOk());
+
+        // e.g. a write committed on another instance, which never touched this cache
+        when(orchestrator.getPlanRevision()).thenReturn(8L);
+        when(orchestrator.getPlanSnapshot(any())).thenReturn(new PlanSnapshot(8, List.of()));
+        mockMvc.perform(get("/plan")).andExpect(status().isOk());
+
+        verify(orchestrator, times(2)).getPlanSnapshot(any());
+    }
+
+    @Test
+    void getPlan_returnsRevisionETag_and304WhenUnchanged() throws Exception {
+        String etag = "\"r7-" + LocalDate.now(ZoneId.of("UTC")) + "\"";
+
+        mockMvc.perform(get("/plan"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", etag));
+
+        mockMvc.perform(get("/plan").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void getPlan_withCurrentETag_answers304WithoutLoadingThePlan() throws Exception {
+        String etag = "\"r7-" + LocalDate.now(ZoneId.of("UTC")) + "\"";
+
+        mockMvc.perform(get("/plan").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag));
+
+        verify(orchestrator, never()).getPlanSnapshot(any());
+    }
+
+    @Test
+    void getPlan_withStaleETag_returnsBody() throws Exception {
+        mockMvc.perform(get("/plan").header("If-None-Match", "\"r6-2020-01-01\""))
+                .andExpect(status().isOk());
+    }
+
+    // --- changes ---
+
+    @Test
+    void changes_passesSinceThrough() throws Exception {
+        when(orchestrator.getPlanChanges(eq(3L), any())).thenReturn(PlanDelta.fullReload(9));
+
+        mockMvc.perform(get("/plan/changes").param("since", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.revision").value(9))
+                .andExpect(jsonPath("$.fullReloadRequired").value(true));
+    }
+
+    // --- batch ---
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void batch_mapsOperationsInOrder() throws Exception {
+        UUID assignmentId = UUID.randomUUID();
+        UUID taskId = UUID.randomUUID();
+        String body = """
+                {"operations":[
+                  {"type":"TOGGLE","assignmentId":"%1$s","taskId":"%2$s"},
+                  {"type":"EFFORT","assignmentId":"%1$s","taskId":"%2$s","effortHours":3},
+                  {"type":"TITLE","assignmentId":"%1$s","taskId":"%2$s","title":"Outline"},
+                  {"type":"ASSIGNMENT","assignmentId":"%1$s","assignment":{"subject":" History "}},
+                  {"type":"AVAILABILITY","availability":{"monHours":1,"tueHours":2,"wedHours":3,
+                    "thuHours":4,"friHours":5,"satHours":6,"sunHours":7}}
+                ]}
+                """.formatted(assignmentId, taskId);
+
+        mockMvc.perform(post("/plan/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk());
+
+        ArgumentCaptor<List<PlanEdit>> captor = ArgumentCaptor.forClass(List.class);
+        verify(orchestrator).applyBatchAndPlan(captor.capture(), eq(LocalDate.now(ZoneId.of("UTC"))));
+
+        List<PlanEdit> edits = captor.getValue();
+        assertEquals(new PlanEdit.ToggleTask(assignmentId, taskId), edits.get(0));
+        assertEquals(new PlanEdit.TaskEffort(assignmentId, taskId, 3), edits.get(1));
+        assertEquals(new PlanEdit.TaskTitle(assignmentId, taskId, "Outline"), edits.get(2));
+        assertEquals("History", ((PlanEdit.AssignmentPatch) edits.get(3)).patch().getSubject());
+        assertEquals(7, ((PlanEdit.AvailabilityChange) edits.get(4)).availability().getSunHours());
+    }
+
+    @Test
+    void batch_missingTaskId_returns400() throws Exception {
+        String body = """
+                {"operations":[{"type":"TOGGLE","assignmentId":"%s"}]}
+                """.formatted(UUID.randomUUID());
+
+        mockMvc.perform(post("/plan/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isBadRequest());
+
+        verify(orchestrator, never()).applyBatchAndPlan(anyList(), any());
+    }
+
+    @Test
+    void batch_empty_returns400() throws Exception {
+        mockMvc.perform(post("/plan/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"operations\":[]}"))
+                .andExpect(status().isBadRequest());
     }
 }
\ No newline at end of file
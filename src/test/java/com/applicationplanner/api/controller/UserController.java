@@ -1,8 +1,11 @@
 package com.applicationplanner.api.controller;
 
+import com.applicationplanner.api.auth.JwtService;
 import com.applicationplanner.api.model.User;
+import com.applicationplanner.api.record.TokenPrincipal;
 import com.applicationplanner.api.repository.UserRepository;
 import com.applicationplanner.api.util.WithMockUserId;
+import com.jayway.jsonpath.JsonPath;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,6 +21,7 @@ import java.time.OffsetDateTime;
 import java.util.Optional;
 import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -37,6 +41,9 @@ class UserControllerTest {
     @MockitoBean
     private UserRepository userRepository;
 
+    @Autowired
+    private JwtService jwtService;
+
     private User testUser;
 
     /**
@@ -129,6 +136,43 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.atRiskAlertEnabled").value(true));
     }
 
+    /**
+     * Verifies a timezone change hands back a token carrying the new zone, so instances that
+     * trust the token's claim see the change too.
+     */
+    @Test
+    void updateMe_timezoneChange_returnsTokenWithNewClaim() throws Exception {
+        String body = mockMvc.perform(patch("/users/me")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                    "timezone": "Asia/Tokyo"
+                                }
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.timezone").value("Asia/Tokyo"))
+                .andReturn().getResponse().getContentAsString();
+
+        String token = JsonPath.read(body, "$.token");
+        assertEquals(new TokenPrincipal(WithMockUserId.TEST_USER_ID, "Asia/Tokyo"), jwtService.parse(token));
+    }
+
+    /**
+     * Verifies edits that leave the timezone alone don't mint a token.
+     */
+    @Test
+    void updateMe_withoutTimezone_returnsNoToken() throws Exception {
+        mockMvc.perform(patch("/users/me")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                {
+                                    "displayName": "Renamed"
+                                }
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").doesNotExist());
+    }
+
     /**
      * Verifies PATCH /users/me rejects invalid dailyReminderTime format. By Claude
      */
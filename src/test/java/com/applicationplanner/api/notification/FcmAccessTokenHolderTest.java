@@ -0,0 +1,111 @@
+package com.applicationplanner.api.notification;
+
+import com.google.auth.oauth2.AccessToken;
+import com.google.auth.oauth2.GoogleCredentials;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FcmAccessTokenHolderTest {
+
+    private static final Instant T0 = Instant.parse("2025-06-02T08:00:00Z");
+    private static final Duration TOKEN_TTL = Duration.ofHours(1);
+
+    private final MutableClock clock = new MutableClock(T0);
+    private final CountingCredentials credentials = new CountingCredentials(clock);
+    private final FcmAccessTokenHolder holder = new FcmAccessTokenHolder(credentials, clock);
+
+    @Test
+    void accessToken_fetchesOnce_thenServesFromCache() throws IOException {
+        assertEquals("token-1", holder.accessToken());
+        clock.advance(Duration.ofMinutes(30));
+
+        assertEquals("token-1", holder.accessToken());
+        assertEquals(1, credentials.refreshes.get());
+    }
+
+    @Test
+    void refreshAhead_renewsOnlyNearExpiry() throws IOException {
+        holder.refreshAhead();
+        assertEquals(0, credentials.refreshes.get(), "nothing to renew before the first send");
+
+        holder.accessToken();
+        clock.advance(Duration.ofMinutes(30));
+        holder.refreshAhead();
+        assertEquals(1, credentials.refreshes.get());
+
+        clock.advance(Duration.ofMinutes(25)); // 5 minutes left
+        holder.refreshAhead();
+        assertEquals("token-2", holder.accessToken());
+    }
+
+    @Test
+    void failedRefresh_keepsServingTheValidToken_untilItExpires() throws IOException {
+        holder.accessToken();
+        credentials.failing.set(true);
+
+        clock.advance(Duration.ofMinutes(55));
+        holder.refreshAhead();
+        assertEquals("token-1", holder.accessToken());
+
+        clock.advance(Duration.ofMinutes(5)); // expired now, so the send has to refresh itself
+        assertThrows(IOException.class, holder::accessToken);
+
+        credentials.failing.set(false);
+        assertEquals("token-2", holder.accessToken());
+    }
+
+    /** Issues token-1, token-2, ... each valid for an hour from the clock's now. */
+    private static final class CountingCredentials extends GoogleCredentials {
+        final AtomicInteger refreshes = new AtomicInteger();
+        final AtomicBoolean failing = new AtomicBoolean();
+        private final Clock clock;
+
+        CountingCredentials(Clock clock) {
+            this.clock = clock;
+        }
+
+        @Override
+        public AccessToken refreshAccessToken() throws IOException {
+            if (failing.get()) throw new IOException("token endpoint unavailable");
+            int n = refreshes.incrementAndGet();
+            return new AccessToken("token-" + n, Date.from(Instant.now(clock).plus(TOKEN_TTL)));
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration d) {
+            now = now.plus(d);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+    }
+}
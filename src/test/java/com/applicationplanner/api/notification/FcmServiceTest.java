@@ -0,0 +1,175 @@
+package com.applicationplanner.api.notification;
+
+import com.applicationplanner.api.enums.PushOutcome;
+import com.applicationplanner.api.record.PushDispatchResult;
+import com.applicationplanner.api.record.PushMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.auth.oauth2.AccessToken;
+import com.google.auth.oauth2.GoogleCredentials;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs FcmService against a local stub of the FCM send endpoint.
+ */
+class FcmServiceTest {
+
+    private static final long LATENCY_MS = 300;
+
+    private HttpServer server;
+    private ExecutorService serverThreads;
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger peakActive = new AtomicInteger();
+    private final AtomicInteger received = new AtomicInteger();
+
+    @BeforeEach
+    void startStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/projects/test-project/messages:send", exchange -> {
+            int now = active.incrementAndGet();
+            peakActive.accumulateAndGet(now, Math::max);
+            try {
+                String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+                received.incrementAndGet();
+                Thread.sleep(LATENCY_MS);
+
+                int status = 200;
+                String replyBody = "{}";
+                if (body.contains("bad-token")) {
+                    status = 404;
+                } else if (body.contains("unregistered-token")) {
+                    status = 404;
+                    replyBody = fcmError(404, "NOT_FOUND", "UNREGISTERED");
+                } else if (body.contains("malformed-token")) {
+                    status = 400;
+                    replyBody = fcmError(400, "INVALID_ARGUMENT", "INVALID_ARGUMENT");
+                } else if (body.contains("throttled-token")) {
+                    status = 429;
+                    replyBody = fcmError(429, "RESOURCE_EXHAUSTED", "QUOTA_EXCEEDED");
+                }
+                byte[] reply = replyBody.getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(status, reply.length);
+                exchange.getResponseBody().write(reply);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                active.decrementAndGet();
+                exchange.close();
+            }
+        });
+        serverThreads = Executors.newFixedThreadPool(32);
+        server.setExecutor(serverThreads);
+        server.start();
+    }
+
+    @AfterEach
+    void stopStub() {
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    @Test
+    void sendAll_takesAboutOneLatency_notTheSum() {
+        FcmService fcm = service(16);
+
+        long start = System.nanoTime();
+        PushDispatchResult result = fcm.sendAll(messages(10));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(new PushDispatchResult(10, 0), result);
+        assertEquals(10, received.get());
+        assertTrue(elapsedMs < LATENCY_MS * 4, "10 sends took " + elapsedMs + "ms");
+    }
+
+    @Test
+    void sendAll_neverExceedsMaxInFlight() {
+        FcmService fcm = service(2);
+
+        PushDispatchResult result = fcm.sendAll(messages(6));
+
+        assertEquals(6, result.sent());
+        assertTrue(peakActive.get() <= 2, "peak in flight was " + peakActive.get());
+    }
+
+    @Test
+    void sendAll_countsRejectedAndUnreachableAsFailed() {
+        List<PushMessage> batch = List.of(
+                new PushMessage("good-token", "Title", "Body"),
+                new PushMessage("bad-token", "Title", "Body")
+        );
+
+        assertEquals(new PushDispatchResult(1, 1), service(4).sendAll(batch));
+
+        FcmService unreachable = new FcmService(new FcmAccessTokenHolder(credentials()), new ObjectMapper(), "test-project",
+                "http://127.0.0.1:1", 4);
+        assertEquals(new PushDispatchResult(0, 2), unreachable.sendAll(batch));
+    }
+
+    @Test
+    void sendEach_flagsUnregisteredAndInvalidTokensAsDead() {
+        List<PushMessage> batch = List.of(
+                new PushMessage("good-token", "Title", "Body"),
+                new PushMessage("unregistered-token", "Title", "Body"),
+                new PushMessage("malformed-token", "Title", "Body"),
+                new PushMessage("throttled-token", "Title", "Body"),
+                new PushMessage("bad-token", "Title", "Body")
+        );
+
+        assertEquals(List.of(PushOutcome.DELIVERED, PushOutcome.TOKEN_DEAD, PushOutcome.TOKEN_DEAD,
+                PushOutcome.RETRY, PushOutcome.RETRY), service(8).sendEach(batch));
+    }
+
+    @Test
+    void sendEach_releasesTheSlot_whenTheClientFailsBeforeSending() {
+        HttpClient failing = mock(HttpClient.class);
+        when(failing.sendAsync(any(), any())).thenThrow(new IllegalArgumentException("unsupported request"));
+        FcmService fcm = new FcmService(new FcmAccessTokenHolder(credentials()), new ObjectMapper(), "test-project",
+                "http://127.0.0.1:" + server.getAddress().getPort(), 1, failing);
+
+        // with one slot, a leaked permit would block the second send forever
+        List<PushOutcome> outcomes = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                () -> fcm.sendEach(messages(3)));
+
+        assertEquals(List.of(PushOutcome.RETRY, PushOutcome.RETRY, PushOutcome.RETRY), outcomes);
+    }
+
+    private static String fcmError(int code, String status, String errorCode) {
+        return "{\"error\":{\"code\":" + code + ",\"message\":\"x\",\"status\":\"" + status + "\","
+                + "\"details\":[{\"@type\":\"type.googleapis.com/google.firebase.fcm.v1.FcmError\","
+                + "\"errorCode\":\"" + errorCode + "\"}]}}";
+    }
+
+    private FcmService service(int maxInFlight) {
+        return new FcmService(new FcmAccessTokenHolder(credentials()), new ObjectMapper(), "test-project",
+                "http://127.0.0.1:" + server.getAddress().getPort(), maxInFlight);
+    }
+
+    private static GoogleCredentials credentials() {
+        return GoogleCredentials.create(new AccessToken("test-access-token", new Date(System.currentTimeMillis() + 3_600_000)));
+    }
+
+    private static List<PushMessage> messages(int n) {
+        return IntStream.range(0, n)
+                .mapToObj(i -> new PushMessage("token-" + i, "Title", "Body"))
+                .toList();
+    }
+}
@@ -0,0 +1,161 @@
+package com.applicationplanner.api.notification;
+
+import com.applicationplanner.api.enums.OutboxStatus;
+import com.applicationplanner.api.enums.PushOutcome;
+import com.applicationplanner.api.model.DeviceToken;
+import com.applicationplanner.api.model.OutboxNotification;
+import com.applicationplanner.api.repository.DeviceTokenRepository;
+import com.applicationplanner.api.repository.OutboxNotificationRepository;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@Transactional
+class NotificationOutboxTest {
+
+    @Autowired private NotificationOutbox outbox;
+    @Autowired private OutboxNotificationRepository outboxRepository;
+    @Autowired private DeviceTokenRepository deviceTokenRepository;
+    @Autowired private DeviceTokenPruner deviceTokenPruner;
+
+    @MockitoBean private FcmService fcmService;
+
+    @Test
+    void deliverDue_deletesDelivered_andBacksOffFailed() {
+        OutboxNotification ok = queued("good-token");
+        OutboxNotification failing = queued("bad-token");
+        when(fcmService.sendEach(any())).thenReturn(List.of(PushOutcome.DELIVERED, PushOutcome.RETRY));
+
+        assertEquals(2, outbox.deliverDue(10));
+
+        assertFalse(outboxRepository.existsById(ok.getId()));
+        OutboxNotification retry = outboxRepository.findById(failing.getId()).orElseThrow();
+        assertEquals(OutboxStatus.PENDING, retry.getStatus());
+        assertEquals(1, retry.getAttempts());
+        assertTrue(retry.getNextAttemptAt().isAfter(Instant.now().plusSeconds(20)));
+
+        // backing off, so nothing is due yet
+        assertEquals(0, outbox.deliverDue(10));
+    }
+
+    @Test
+    void deliverDue_claimsAtMostLimit_inDueOrder() {
+        OutboxNotification older = queued("a");
+        older.setNextAttemptAt(Instant.now().minusSeconds(60));
+        queued("b");
+        when(fcmService.sendEach(any())).thenReturn(List.of(PushOutcome.DELIVERED));
+
+        assertEquals(1, outbox.deliverDue(1));
+
+        assertFalse(outboxRepository.existsById(older.getId()));
+        assertEquals(1, outboxRepository.countByStatus(OutboxStatus.PENDING));
+    }
+
+    @Test
+    void deliverDue_deadLettersAfterMaxAttempts() {
+        OutboxNotification failing = queued("bad-token");
+        failing.setAttempts(7);
+        when(fcmService.sendEach(any())).thenReturn(List.of(PushOutcome.RETRY));
+
+        outbox.deliverDue(10);
+
+        OutboxNotification dead = outboxRepository.findById(failing.getId()).orElseThrow();
+        assertEquals(OutboxStatus.DEAD, dead.getStatus());
+        assertEquals(8, dead.getAttempts());
+
+        outbox.deliverDue(10);
+        verify(fcmService).sendEach(any());
+    }
+
+    @Test
+    void deliverDue_prunesDeadTokens_andWhatIsStillQueuedForThem() {
+        deviceTokenRepository.save(DeviceToken.builder().userId(UUID.randomUUID()).token("dead-token").platform("android").build());
+        DeviceToken alive = deviceTokenRepository.save(DeviceToken.builder().userId(UUID.randomUUID()).token("live-token").platform("ios").build());
+        OutboxNotification first = queued("dead-token");
+        first.setNextAttemptAt(Instant.now().minusSeconds(60));
+        OutboxNotification later = queued("dead-token");
+        later.setNextAttemptAt(Instant.now().plusSeconds(600));
+        long removedBefore = deviceTokenPruner.tokensRemoved();
+        when(fcmService.sendEach(any())).thenReturn(List.of(PushOutcome.TOKEN_DEAD));
+
+        assertEquals(1, outbox.deliverDue(10));
+
+        assertTrue(deviceTokenRepository.findByToken("dead-token").isEmpty());
+        assertTrue(deviceTokenRepository.existsById(alive.getId()));
+        assertFalse(outboxRepository.existsById(first.getId()));
+        assertFalse(outboxRepository.existsById(later.getId()));
+        assertEquals(removedBefore + 1, deviceTokenPruner.tokensRemoved());
+    }
+
+    @Test
+    @org.springframework.transaction.annotation.Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void deliverDue_sendsOutsideAnyTransaction_withItsRowsLeased() {
+        OutboxNotification n = queued("good-token");
+        when(fcmService.sendEach(any())).thenAnswer(inv -> {
+            assertFalse(TransactionSynchronizationManager.isActualTransactionActive());
+            // the claim has committed, so another worker already sees the row as taken
+            assertEquals(0, outbox.deliverDue(10));
+            return List.of(PushOutcome.DELIVERED);
+        });
+
+        try {
+            assertEquals(1, outbox.deliverDue(10));
+            assertFalse(outboxRepository.existsById(n.getId()));
+        } finally {
+            outboxRepository.deleteAll();
+        }
+    }
+
+    @Test
+    void deliverDue_failingMidSend_leavesRowsLeasedForALaterRetry() {
+        OutboxNotification n = queued("good-token");
+        when(fcmService.sendEach(any())).thenThrow(new IllegalStateException("worker died"));
+
+        assertThrows(IllegalStateException.class, () -> outbox.deliverDue(10));
+
+        OutboxNotification leased = outboxRepository.findById(n.getId()).orElseThrow();
+        assertEquals(OutboxStatus.PENDING, leased.getStatus());
+        assertEquals(0, leased.getAttempts());
+        assertTrue(leased.getNextAttemptAt().isAfter(Instant.now().plusSeconds(200)));
+    }
+
+    @Test
+    void deliverDue_withEmptyQueue_sendsNothing() {
+        assertEquals(0, outbox.deliverDue(10));
+        verify(fcmService, never()).sendEach(any());
+    }
+
+    @Test
+    void backoff_doublesFromBase_andIsCapped() {
+        assertEquals(Duration.ofSeconds(30), outbox.backoff(1));
+        assertEquals(Duration.ofSeconds(120), outbox.backoff(3));
+        assertEquals(Duration.ofHours(1), outbox.backoff(12));
+    }
+
+    private OutboxNotification queued(String token) {
+        OutboxNotification n = OutboxNotification.builder()
+                .userId(UUID.randomUUID())
+                .deviceToken(token)
+                .title("Title")
+                .body("Body")
+                .build();
+        outbox.enqueue(List.of(n));
+        return n;
+    }
+}
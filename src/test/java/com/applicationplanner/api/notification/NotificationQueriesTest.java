@@ -0,0 +1,157 @@
+package com.applicationplanner.api.notification;
+
+import com.applicationplanner.api.model.Assignment;
+import com.applicationplanner.api.model.Task;
+import com.applicationplanner.api.model.User;
+import com.applicationplanner.api.record.NotificationRecipient;
+import com.applicationplanner.api.record.UserAssignmentCount;
+import com.applicationplanner.api.repository.AssignmentRepository;
+import com.applicationplanner.api.repository.TaskRepository;
+import com.applicationplanner.api.repository.UserRepository;
+import com.applicationplanner.api.util.NotificationShards;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class NotificationQueriesTest {
+
+    @Autowired private UserRepository userRepository;
+    @Autowired private AssignmentRepository assignmentRepository;
+    @Autowired private TaskRepository taskRepository;
+
+    private static final UUID FIRST_ID = new UUID(0, 0);
+
+    private final LocalDate today = LocalDate.of(2026, 2, 9);
+
+    private User alice;
+    private User bob;
+
+    @BeforeEach
+    void setup() {
+        alice = userRepository.save(User.builder().email("alice@test.com").build());
+        bob = userRepository.save(User.builder().email("bob@test.com").dueDateWarningEnabled(false).build());
+    }
+
+    @Test
+    void countWithIncompleteTasks_countsOnlyOpenAssignments_perUser() {
+        assignment(alice, today.plusDays(2), false, true);   // one open task
+        assignment(alice, today.plusDays(4), false);
+        assignment(alice, today.plusDays(6), true, true);    // all done
+        assignment(bob, today.plusDays(2), true);
+
+        List<UserAssignmentCount> counts = assignmentRepository
+                .countWithIncompleteTasksByUserIdIn(List.of(alice.getId(), bob.getId()));
+
+        assertEquals(List.of(new UserAssignmentCount(alice.getId(), 2)), counts);
+    }
+
+    @Test
+    void findWithIncompleteTasksDueBetween_filtersByWindowAndOpenTasks() {
+        Assignment inWindow = assignment(alice, today.plusDays(2), false);
+        assignment(alice, today.plusDays(9), false);          // outside the window
+        assignment(alice, today.plusDays(2), true);           // done
+        assignment(bob, today.plusDays(2), false);            // not in the batch
+
+        List<Assignment> found = assignmentRepository.findWithIncompleteTasksDueBetween(
+                List.of(alice.getId()), today.plusDays(1), today.plusDays(3));
+
+        assertEquals(List.of(inWindow.getId()), found.stream().map(Assignment::getId).toList());
+    }
+
+    @Test
+    void preferencePages_skipUsersWithTheAlertOff() {
+        List<UUID> warned = userRepository
+                .findDueDateWarningRecipients(NotificationShards.ALL, FIRST_ID, Limit.of(50)).stream()
+                .map(NotificationRecipient::id).toList();
+
+        assertTrue(warned.contains(alice.getId()));
+        assertFalse(warned.contains(bob.getId()));
+    }
+
+    @Test
+    void preferencePages_onlyReturnRequestedShards() {
+        int aliceShard = NotificationShards.of(alice.getId());
+        assertEquals(aliceShard, alice.getNotificationShard());
+
+        Set<Integer> others = NotificationShards.ALL.stream().filter(s -> s != aliceShard).collect(Collectors.toSet());
+        List<UUID> found = userRepository.findAtRiskAlertRecipients(others, FIRST_ID, Limit.of(50)).stream()
+                .map(NotificationRecipient::id).toList();
+
+        assertFalse(found.contains(alice.getId()));
+    }
+
+    @Test
+    void preferencePages_continueAfterTheLastId_withoutGapsOrRepeats() {
+        for (int i = 0; i < 5; i++) {
+            userRepository.save(User.builder().email("user" + i + "@test.com").build());
+        }
+        List<UUID> all = userRepository.findAtRiskAlertRecipients(NotificationShards.ALL, FIRST_ID, Limit.of(50))
+                .stream().map(NotificationRecipient::id).toList();
+
+        List<UUID> walked = new ArrayList<>();
+        UUID afterId = FIRST_ID;
+        while (true) {
+            List<NotificationRecipient> page = userRepository
+                    .findAtRiskAlertRecipients(NotificationShards.ALL, afterId, Limit.of(2));
+            if (page.isEmpty()) break;
+            page.forEach(r -> walked.add(r.id()));
+            afterId = page.get(page.size() - 1).id();
+        }
+
+        assertTrue(all.size() >= 7);
+        assertEquals(all, walked);
+    }
+
+    @Test
+    void advanceDailyReminder_toNull_takesUserOffTheDueSet() {
+        Instant claimed = alice.getDailyReminderNextFireAt();
+        Instant later = claimed.plus(Duration.ofDays(2));
+        assertTrue(dueDailyReminders(later).contains(alice.getId()));
+
+        assertEquals(1, userRepository.advanceDailyReminder(alice.getId(), claimed, null));
+
+        assertFalse(dueDailyReminders(later).contains(alice.getId()));
+    }
+
+    private List<UUID> dueDailyReminders(Instant now) {
+        return userRepository.findDueDailyReminders(now, NotificationShards.ALL, Limit.of(50))
+                .stream().map(NotificationRecipient::id).toList();
+    }
+
+    private Assignment assignment(User user, LocalDate dueDate, boolean... taskDone) {
+        Assignment a = new Assignment();
+        a.setUserId(user.getId());
+        a.setTitle("Essay");
+        a.setSubject("Math");
+        a.setDueDate(dueDate);
+        a.setPlanningDays(3);
+        a = assignmentRepository.save(a);
+
+        for (int i = 0; i < taskDone.length; i++) {
+            Task t = new Task();
+            t.setAssignmentId(a.getId());
+            t.setTitle("Task " + i);
+            t.setDone(taskDone[i]);
+            t.setEffortHours(1);
+            t.setOrderIndex(i);
+            taskRepository.save(t);
+        }
+        return a;
+    }
+}
@@ -2,35 +2,51 @@ package com.applicationplanner.api.notification;
 
 import com.applicationplanner.api.enums.PanicStatus;
 import com.applicationplanner.api.model.Assignment;
-import com.applicationplanner.api.model.Availability;
+import com.applicationplanner.api.model.AssignmentAlertLedger;
 import com.applicationplanner.api.model.DeviceToken;
 import com.applicationplanner.api.model.Task;
 import com.applicationplanner.api.model.User;
+import com.applicationplanner.api.record.NotificationRecipient;
+import com.applicationplanner.api.record.UserAssignmentCount;
+import com.applicationplanner.api.repository.AssignmentAlertLedgerRepository;
 import com.applicationplanner.api.repository.AssignmentRepository;
-import com.applicationplanner.api.repository.AvailabilityRepository;
 import com.applicationplanner.api.repository.DeviceTokenRepository;
 import com.applicationplanner.api.repository.TaskRepository;
 import com.applicationplanner.api.repository.UserRepository;
 import com.applicationplanner.api.service.PlannerService;
+import com.applicationplanner.api.util.NotificationShards;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -39,12 +55,13 @@ class NotificationSchedulerTest {
     @Mock private UserRepository userRepository;
     @Mock private AssignmentRepository assignmentRepository;
     @Mock private TaskRepository taskRepository;
-    @Mock private AvailabilityRepository availabilityRepository;
     @Mock private DeviceTokenRepository deviceTokenRepository;
     @Mock private PlannerService plannerService;
-    @Mock private FcmService fcmService;
+    @Mock private NotificationOutbox outbox;
+    @Mock private AssignmentAlertLedgerRepository alertLedgerRepository;
+    @Mock private ShardLeaseManager shardLeases;
+    @Mock private PlatformTransactionManager transactionManager;
 
-    @InjectMocks
     private NotificationScheduler scheduler;
 
     private User testUser;
@@ -52,12 +69,17 @@ class NotificationSchedulerTest {
     private DeviceToken deviceToken;
 
     private static final LocalDate TODAY_UTC = LocalDate.now(ZoneId.of("UTC"));
+    private static final long AT_RISK_COOLDOWN_HOURS = 24;
 
     /**
      * Sets up a default user and device token before each test. By Claude
      */
     @BeforeEach
     void setup() {
+        scheduler = new NotificationScheduler(userRepository, assignmentRepository, taskRepository,
+                deviceTokenRepository, plannerService, outbox, alertLedgerRepository, shardLeases,
+                new TransactionTemplate(transactionManager), AT_RISK_COOLDOWN_HOURS);
+        lenient().when(shardLeases.ownedShards()).thenReturn(NotificationShards.ALL);
         userId = UUID.randomUUID();
 
         ZonedDateTime now = ZonedDateTime.now(ZoneId.of("UTC"));
@@ -75,6 +97,7 @@ class NotificationSchedulerTest {
                 .dueDateWarningDaysBefore(2)
                 .atRiskAlertEnabled(true)
                 .build();
+        testUser.rescheduleDailyReminder(now.toInstant().minusSeconds(60));
 
         deviceToken = DeviceToken.builder()
                 .id(UUID.randomUUID())
@@ -89,83 +112,118 @@ class NotificationSchedulerTest {
     // -------------------------
 
     /**
-     * Verifies daily reminder is sent when user has incomplete assignments at reminder time. By Claude
+     * Verifies daily reminder is sent when a due user has incomplete assignments, and is moved on a day.
      */
     @Test
     void dailyReminderJob_sendsNotification_whenUserHasIncompleteAssignments() {
-        Assignment assignment = buildAssignment(userId, TODAY_UTC.plusDays(5));
-        Task incompleteTask = buildTask(assignment.getId(), false);
+        Instant fireAt = testUser.getDailyReminderNextFireAt();
 
-        when(userRepository.findAll()).thenReturn(List.of(testUser));
-        when(assignmentRepository.findAllByUserIdOrderByDueDateAsc(userId))
-                .thenReturn(List.of(assignment));
-        when(taskRepository.findByAssignmentId(assignment.getId()))
-                .thenReturn(List.of(incompleteTask));
-        when(deviceTokenRepository.findAllByUserId(userId))
+        when(userRepository.findDueDailyReminders(any(), any(), any())).thenReturn(List.of(recipient(testUser)));
+        when(userRepository.advanceDailyReminder(eq(userId), eq(fireAt), any())).thenReturn(1);
+        when(assignmentRepository.countWithIncompleteTasksByUserIdIn(List.of(userId)))
+                .thenReturn(List.of(new UserAssignmentCount(userId, 2)));
+        when(deviceTokenRepository.findAllByUserIdIn(Set.of(userId)))
                 .thenReturn(List.of(deviceToken));
 
         scheduler.runDailyReminderJob();
 
-        verify(fcmService).sendNotification(eq("test-fcm-token"), contains("Daily Study Reminder"), any());
+        verifySent("Daily Study Reminder", "2 assignments");
+        verify(userRepository).advanceDailyReminder(userId, fireAt, fireAt.plus(Duration.ofDays(1)));
     }
 
     /**
-     * Verifies daily reminder is not sent when notifications are disabled. By Claude
+     * Verifies the claim and the queued push are committed by the same transaction.
      */
     @Test
-    void dailyReminderJob_skipsUser_whenNotificationsDisabled() {
-        testUser.setNotificationsEnabled(false);
-        when(userRepository.findAll()).thenReturn(List.of(testUser));
+    void dailyReminderJob_claimsAndQueuesInOneTransaction() {
+        when(userRepository.findDueDailyReminders(any(), any(), any())).thenReturn(List.of(recipient(testUser)));
+        when(userRepository.advanceDailyReminder(eq(userId), any(), any())).thenReturn(1);
+        when(assignmentRepository.countWithIncompleteTasksByUserIdIn(List.of(userId)))
+                .thenReturn(List.of(new UserAssignmentCount(userId, 1)));
+        when(deviceTokenRepository.findAllByUserIdIn(Set.of(userId)))
+                .thenReturn(List.of(deviceToken));
 
         scheduler.runDailyReminderJob();
 
-        verify(fcmService, never()).sendNotification(any(), any(), any());
+        InOrder order = inOrder(transactionManager, userRepository, outbox);
+        order.verify(transactionManager).getTransaction(any());
+        order.verify(userRepository).advanceDailyReminder(eq(userId), any(), any());
+        order.verify(outbox).enqueue(any());
+        order.verify(transactionManager).commit(any());
     }
 
     /**
-     * Verifies daily reminder is not sent when daily reminder is disabled. By Claude
+     * Verifies a reminder time that can't be parsed takes the user off the due set instead of
+     * leaving them due on every tick.
      */
     @Test
-    void dailyReminderJob_skipsUser_whenDailyReminderDisabled() {
-        testUser.setDailyReminderEnabled(false);
-        when(userRepository.findAll()).thenReturn(List.of(testUser));
+    void dailyReminderJob_clearsNextFire_whenReminderTimeIsUnusable() {
+        testUser.setDailyReminderTime("25:99");
+        Instant fireAt = testUser.getDailyReminderNextFireAt();
+        when(userRepository.findDueDailyReminders(any(), any(), any())).thenReturn(List.of(recipient(testUser)));
+        when(userRepository.advanceDailyReminder(eq(userId), eq(fireAt), isNull())).thenReturn(1);
 
         scheduler.runDailyReminderJob();
 
-        verify(fcmService, never()).sendNotification(any(), any(), any());
+        verify(userRepository).advanceDailyReminder(eq(userId), eq(fireAt), isNull());
+        verify(outbox, never()).enqueue(any());
     }
 
     /**
-     * Verifies daily reminder is not sent when user has no assignments. By Claude
+     * Verifies nothing is sent when no user is due this minute.
      */
     @Test
-    void dailyReminderJob_skipsUser_whenNoAssignments() {
-        when(userRepository.findAll()).thenReturn(List.of(testUser));
-        when(assignmentRepository.findAllByUserIdOrderByDueDateAsc(userId))
-                .thenReturn(List.of());
+    void dailyReminderJob_sendsNothing_whenNoUserIsDue() {
+        when(userRepository.findDueDailyReminders(any(), any(), any())).thenReturn(List.of());
 
         scheduler.runDailyReminderJob();
 
-        verify(fcmService, never()).sendNotification(any(), any(), any());
+        verify(outbox, never()).enqueue(any());
     }
 
     /**
-     * Verifies daily reminder is not sent when all assignments are complete. By Claude
+     * Verifies a reminder already claimed elsewhere (or rescheduled meanwhile) is not sent again.
      */
     @Test
-    void dailyReminderJob_skipsUser_whenAllAssignmentsComplete() {
-        Assignment assignment = buildAssignment(userId, TODAY_UTC.plusDays(5));
-        Task completedTask = buildTask(assignment.getId(), true);
+    void dailyReminderJob_skipsUser_whenReminderAlreadyClaimed() {
+        when(userRepository.findDueDailyReminders(any(), any(), any())).thenReturn(List.of(recipient(testUser)));
+        when(userRepository.advanceDailyReminder(eq(userId), any(), any())).thenReturn(0);
 
-        when(userRepository.findAll()).thenReturn(List.of(testUser));
-        when(assignmentRepository.findAllByUserIdOrderByDueDateAsc(userId))
-                .thenReturn(List.of(assignment));
-        when(taskRepository.findByAssignmentId(assignment.getId()))
-                .thenReturn(List.of(completedTask));
+        scheduler.runDailyReminderJob();
+
+        verify(outbox, never()).enqueue(any());
+        verify(assignmentRepository, never()).countWithIncompleteTasksByUserIdIn(any());
+    }
+
+    /**
+     * Verifies a reminder missed by more than the grace window is rolled forward without sending.
+     */
+    @Test
+    void dailyReminderJob_skipsStaleReminder_butReschedulesIt() {
+        testUser.setDailyReminderNextFireAt(Instant.now().minus(Duration.ofHours(3)));
+        when(userRepository.findDueDailyReminders(any(), any(), any())).thenReturn(List.of(recipient(testUser)));
+        when(userRepository.advanceDailyReminder(eq(userId), any(), any())).thenReturn(1);
+
+        scheduler.runDailyReminderJob();
+
+        verify(outbox, never()).enqueue(any());
+        verify(userRepository).advanceDailyReminder(eq(userId), any(), any());
+    }
+
+    /**
+     * Verifies daily reminder is not sent when user has no incomplete assignments (absent from the counts).
+     */
+    @Test
+    void dailyReminderJob_skipsUser_whenNoIncompleteAssignments() {
+        when(userRepository.findDueDailyReminders(any(), any(), any())).thenReturn(List.of(recipient(testUser)));
+        when(userRepository.advanceDailyReminder(eq(userId), any(), any())).thenReturn(1);
+        when(assignmentRepository.countWithIncompleteTasksByUserIdIn(List.of(userId)))
+                .thenReturn(List.of());
 
         scheduler.runDailyReminderJob();
 
-        verify(fcmService, never()).sendNotification(any(), any(), any());
+        verify(outbox, never()).enqueue(any());
+        verify(deviceTokenRepository, never()).findAllByUserIdIn(any());
     }
 
     // -------------------------
@@ -178,19 +236,18 @@ class NotificationSchedulerTest {
     @Test
     void dueDateWarningJob_sendsNotification_whenAssignmentDueWithinWarningWindow() {
         Assignment assignment = buildAssignment(userId, TODAY_UTC.plusDays(2));
-        Task incompleteTask = buildTask(assignment.getId(), false);
 
-        when(userRepository.findAll()).thenReturn(List.of(testUser));
-        when(assignmentRepository.findAllByUserIdOrderByDueDateAsc(userId))
+        when(userRepository.findDueDateWarningRecipients(any(), any(), any()))
+                .thenReturn(List.of(recipient(testUser)));
+        when(assignmentRepository.findWithIncompleteTasksDueBetween(
+                List.of(userId), TODAY_UTC.plusDays(1), TODAY_UTC.plusDays(3)))
                 .thenReturn(List.of(assignment));
-        when(taskRepository.findByAssignmentId(assignment.getId()))
-                .thenReturn(List.of(incompleteTask));
-        when(deviceTokenRepository.findAllByUserId(userId))
+        when(deviceTokenRepository.findAllByUserIdIn(Set.of(userId)))
                 .thenReturn(List.of(deviceToken));
 
         scheduler.runDueDateWarningJob();
 
-        verify(fcmService).sendNotification(eq("test-fcm-token"), contains("Due Soon"), any());
+        verifySent("Due Soon");
     }
 
     /**
@@ -198,34 +255,77 @@ class NotificationSchedulerTest {
      */
     @Test
     void dueDateWarningJob_skipsAssignment_whenNotWithinWarningWindow() {
-        Assignment assignment = buildAssignment(userId, TODAY_UTC.plusDays(5));
+        Assignment assignment = buildAssignment(userId, TODAY_UTC.plusDays(3));
 
-        when(userRepository.findAll()).thenReturn(List.of(testUser));
-        when(assignmentRepository.findAllByUserIdOrderByDueDateAsc(userId))
+        when(userRepository.findDueDateWarningRecipients(any(), any(), any()))
+                .thenReturn(List.of(recipient(testUser)));
+        when(assignmentRepository.findWithIncompleteTasksDueBetween(any(), any(), any()))
                 .thenReturn(List.of(assignment));
 
         scheduler.runDueDateWarningJob();
 
-        verify(fcmService, never()).sendNotification(any(), any(), any());
+        verify(outbox, never()).enqueue(any());
     }
 
     /**
-     * Verifies due date warning is not sent when all tasks are complete. By Claude
+     * Verifies every page of users is visited, each continuing after the previous page's last id,
+     * with one assignment query per page.
      */
     @Test
-    void dueDateWarningJob_skipsAssignment_whenAllTasksComplete() {
-        Assignment assignment = buildAssignment(userId, TODAY_UTC.plusDays(2));
-        Task completedTask = buildTask(assignment.getId(), true);
+    void dueDateWarningJob_walksAllPages() {
+        List<NotificationRecipient> firstPage = new ArrayList<>();
+        firstPage.add(recipient(testUser));
+        while (firstPage.size() < NotificationScheduler.USER_PAGE_SIZE) {
+            firstPage.add(new NotificationRecipient(UUID.randomUUID(), "UTC", "08:00", null, 2, 0));
+        }
+        UUID lastOfFirst = firstPage.get(firstPage.size() - 1).id();
+        NotificationRecipient other = new NotificationRecipient(UUID.randomUUID(), "UTC", "08:00", null, 2, 0);
+
+        when(userRepository.findDueDateWarningRecipients(any(), any(), any()))
+                .thenReturn(firstPage)
+                .thenReturn(List.of(other));
+        when(assignmentRepository.findWithIncompleteTasksDueBetween(any(), any(), any()))
+                .thenReturn(List.of());
 
-        when(userRepository.findAll()).thenReturn(List.of(testUser));
-        when(assignmentRepository.findAllByUserIdOrderByDueDateAsc(userId))
-                .thenReturn(List.of(assignment));
-        when(taskRepository.findByAssignmentId(assignment.getId()))
-                .thenReturn(List.of(completedTask));
+        scheduler.runDueDateWarningJob();
+
+        verify(userRepository).findDueDateWarningRecipients(any(), eq(new UUID(0, 0)), any());
+        verify(userRepository).findDueDateWarningRecipients(any(), eq(lastOfFirst), any());
+        verify(assignmentRepository).findWithIncompleteTasksDueBetween(argThat(ids -> ids.contains(userId)), any(), any());
+        verify(assignmentRepository).findWithIncompleteTasksDueBetween(eq(List.of(other.id())), any(), any());
+        verify(outbox, never()).enqueue(any());
+    }
+
+    /**
+     * Verifies a pass that outlives a rebalance only processes users of shards it still owns,
+     * and stops once it owns none.
+     */
+    @Test
+    void dueDateWarningJob_rechecksShardsPerPage_andStopsWhenAllAreLost() {
+        int keptShard = NotificationShards.of(userId);
+        List<NotificationRecipient> firstPage = new ArrayList<>();
+        firstPage.add(recipient(testUser));
+        while (firstPage.size() < NotificationScheduler.USER_PAGE_SIZE) {
+            firstPage.add(new NotificationRecipient(UUID.randomUUID(), "UTC", "08:00", null, 2, 0));
+        }
+        NotificationRecipient lastOfFirst = firstPage.get(firstPage.size() - 1);
+
+        when(shardLeases.ownedShards())
+                .thenReturn(NotificationShards.ALL)  // pass starts
+                .thenReturn(Set.of(keptShard))       // rebalanced away all but one before page 1 runs
+                .thenReturn(Set.of());               // and that one too before page 2
+        when(userRepository.findDueDateWarningRecipients(any(), any(), any()))
+                .thenReturn(firstPage)
+                .thenReturn(List.of(lastOfFirst));
+        when(assignmentRepository.findWithIncompleteTasksDueBetween(any(), any(), any()))
+                .thenReturn(List.of());
 
         scheduler.runDueDateWarningJob();
 
-        verify(fcmService, never()).sendNotification(any(), any(), any());
+        verify(assignmentRepository).findWithIncompleteTasksDueBetween(argThat(ids ->
+                ids.contains(userId) && ids.stream().allMatch(id -> NotificationShards.of(id) == keptShard)), any(), any());
+        verify(userRepository).findDueDateWarningRecipients(eq(Set.of(keptShard)), eq(lastOfFirst.id()), any());
+        verifyNoMoreInteractions(assignmentRepository);
     }
 
     // -------------------------
@@ -239,22 +339,16 @@ class NotificationSchedulerTest {
     void atRiskAlertJob_sendsAtRiskNotification_whenAssignmentIsAtRisk() {
         Assignment assignment = buildAssignment(userId, TODAY_UTC.plusDays(2));
         Task incompleteTask = buildTask(assignment.getId(), false);
+        stubAtRiskPage(assignment, incompleteTask);
 
-        when(userRepository.findAll()).thenReturn(List.of(testUser));
-        when(assignmentRepository.findAllByUserIdOrderByDueDateAsc(userId))
-                .thenReturn(List.of(assignment));
-        when(taskRepository.findByAssignmentId(assignment.getId()))
-                .thenReturn(List.of(incompleteTask));
-        when(availabilityRepository.findByUserId(userId))
-                .thenReturn(Optional.of(Availability.getAvailability()));
-        when(plannerService.computePanicStatusV2(any(), any(), any()))
+        when(plannerService.computePanicStatusV2(assignment, List.of(incompleteTask), TODAY_UTC))
                 .thenReturn(PanicStatus.AT_RISK);
-        when(deviceTokenRepository.findAllByUserId(userId))
+        when(deviceTokenRepository.findAllByUserIdIn(Set.of(userId)))
                 .thenReturn(List.of(deviceToken));
 
         scheduler.runAtRiskAlertJob();
 
-        verify(fcmService).sendNotification(eq("test-fcm-token"), contains("at Risk"), any());
+        verifySent("at Risk");
     }
 
     /**
@@ -264,22 +358,16 @@ class NotificationSchedulerTest {
     void atRiskAlertJob_sendsCriticalNotification_whenAssignmentIsScrewed() {
         Assignment assignment = buildAssignment(userId, TODAY_UTC.plusDays(2));
         Task incompleteTask = buildTask(assignment.getId(), false);
+        stubAtRiskPage(assignment, incompleteTask);
 
-        when(userRepository.findAll()).thenReturn(List.of(testUser));
-        when(assignmentRepository.findAllByUserIdOrderByDueDateAsc(userId))
-                .thenReturn(List.of(assignment));
-        when(taskRepository.findByAssignmentId(assignment.getId()))
-                .thenReturn(List.of(incompleteTask));
-        when(availabilityRepository.findByUserId(userId))
-                .thenReturn(Optional.of(Availability.getAvailability()));
         when(plannerService.computePanicStatusV2(any(), any(), any()))
                 .thenReturn(PanicStatus.SCREWED);
-        when(deviceTokenRepository.findAllByUserId(userId))
+        when(deviceTokenRepository.findAllByUserIdIn(Set.of(userId)))
                 .thenReturn(List.of(deviceToken));
 
         scheduler.runAtRiskAlertJob();
 
-        verify(fcmService).sendNotification(eq("test-fcm-token"), contains("Critical Risk"), any());
+        verifySent("Critical Risk");
     }
 
     /**
@@ -289,39 +377,170 @@ class NotificationSchedulerTest {
     void atRiskAlertJob_skipsAssignment_whenOnTrack() {
         Assignment assignment = buildAssignment(userId, TODAY_UTC.plusDays(3));
         Task incompleteTask = buildTask(assignment.getId(), false);
+        stubAtRiskPage(assignment, incompleteTask);
 
-        when(userRepository.findAll()).thenReturn(List.of(testUser));
-        when(assignmentRepository.findAllByUserIdOrderByDueDateAsc(userId))
-                .thenReturn(List.of(assignment));
-        when(taskRepository.findByAssignmentId(assignment.getId()))
-                .thenReturn(List.of(incompleteTask));
-        when(availabilityRepository.findByUserId(userId))
-                .thenReturn(Optional.of(Availability.getAvailability()));
         when(plannerService.computePanicStatusV2(any(), any(), any()))
                 .thenReturn(PanicStatus.ON_TRACK);
 
         scheduler.runAtRiskAlertJob();
 
-        verify(fcmService, never()).sendNotification(any(), any(), any());
+        verify(outbox, never()).enqueue(any());
+        verify(deviceTokenRepository, never()).findAllByUserIdIn(any());
+    }
+
+    /**
+     * Verifies no work is done when no user has at-risk alerts enabled.
+     */
+    @Test
+    void atRiskAlertJob_sendsNothing_whenNoUserHasAlertsEnabled() {
+        when(userRepository.findAtRiskAlertRecipients(any(), any(), any()))
+                .thenReturn(List.of());
+
+        scheduler.runAtRiskAlertJob();
+
+        verify(assignmentRepository, never()).findAllByUserIdInOrderByDueDateAsc(any());
+        verify(outbox, never()).enqueue(any());
     }
 
     /**
-     * Verifies at-risk alert is not sent when alert is disabled. By Claude
+     * Verifies an assignment still AT_RISK inside the cool-down is neither re-evaluated nor re-sent.
      */
     @Test
-    void atRiskAlertJob_skipsUser_whenAtRiskAlertDisabled() {
-        testUser.setAtRiskAlertEnabled(false);
-        when(userRepository.findAll()).thenReturn(List.of(testUser));
+    void atRiskAlertJob_skipsEvaluationAndSend_whenNothingChangedSinceLastAlert() {
+        Assignment assignment = buildAssignment(userId, TODAY_UTC.plusDays(2));
+        stubAtRiskLedger(assignment, PanicStatus.AT_RISK, TODAY_UTC, PanicStatus.AT_RISK, Duration.ofHours(1));
 
         scheduler.runAtRiskAlertJob();
 
-        verify(fcmService, never()).sendNotification(any(), any(), any());
+        verify(plannerService, never()).computePanicStatusV2(any(), any(), any());
+        verify(taskRepository, never()).findAllByAssignmentIdIn(any());
+        verify(outbox, never()).enqueue(any());
+    }
+
+    /**
+     * Verifies a still-at-risk assignment is re-sent once the cool-down has passed.
+     */
+    @Test
+    void atRiskAlertJob_resends_afterCooldown() {
+        Assignment assignment = buildAssignment(userId, TODAY_UTC.plusDays(2));
+        AssignmentAlertLedger ledger = stubAtRiskLedger(assignment, PanicStatus.AT_RISK, TODAY_UTC,
+                PanicStatus.AT_RISK, Duration.ofHours(AT_RISK_COOLDOWN_HOURS + 1));
+        when(deviceTokenRepository.findAllByUserIdIn(Set.of(userId))).thenReturn(List.of(deviceToken));
+
+        scheduler.runAtRiskAlertJob();
+
+        verifySent("at Risk");
+        verify(plannerService, never()).computePanicStatusV2(any(), any(), any());
+        assertTrue(ledger.getNotifiedAt().isAfter(Instant.now().minusSeconds(60)));
+    }
+
+    /**
+     * Verifies a plan change triggers re-evaluation, and a worsened status is sent despite the cool-down.
+     */
+    @Test
+    void atRiskAlertJob_reevaluatesAfterPlanChange_andSendsOnTransition() {
+        Assignment assignment = buildAssignment(userId, TODAY_UTC.plusDays(2));
+        Task incompleteTask = buildTask(assignment.getId(), false);
+        testUser.setPlanRevision(5);
+        AssignmentAlertLedger ledger = stubAtRiskLedger(assignment, PanicStatus.AT_RISK, TODAY_UTC,
+                PanicStatus.AT_RISK, Duration.ofHours(1));
+        ledger.setEvaluatedRevision(4);
+        when(taskRepository.findAllByAssignmentIdIn(List.of(assignment.getId()))).thenReturn(List.of(incompleteTask));
+        when(plannerService.computePanicStatusV2(assignment, List.of(incompleteTask), TODAY_UTC))
+                .thenReturn(PanicStatus.SCREWED);
+        when(deviceTokenRepository.findAllByUserIdIn(Set.of(userId))).thenReturn(List.of(deviceToken));
+
+        scheduler.runAtRiskAlertJob();
+
+        verifySent("Critical Risk");
+        assertEquals(PanicStatus.SCREWED, ledger.getNotifiedStatus());
+        assertEquals(5, ledger.getEvaluatedRevision());
+        verify(alertLedgerRepository).saveAll(List.of(ledger));
+    }
+
+    /**
+     * Verifies a new local day forces re-evaluation, and recovering to ON_TRACK clears the notified status.
+     */
+    @Test
+    void atRiskAlertJob_reevaluatesOnNewDay_andClearsNotifiedStatusWhenBackOnTrack() {
+        Assignment assignment = buildAssignment(userId, TODAY_UTC.plusDays(2));
+        AssignmentAlertLedger ledger = stubAtRiskLedger(assignment, PanicStatus.AT_RISK, TODAY_UTC.minusDays(1),
+                PanicStatus.AT_RISK, Duration.ofHours(1));
+        when(plannerService.computePanicStatusV2(any(), any(), any())).thenReturn(PanicStatus.ON_TRACK);
+
+        scheduler.runAtRiskAlertJob();
+
+        verify(outbox, never()).enqueue(any());
+        assertNull(ledger.getNotifiedStatus());
+        assertEquals(TODAY_UTC, ledger.getEvaluatedOn());
+    }
+
+    /**
+     * Verifies a node holding no shard leases does no notification work at all.
+     */
+    @Test
+    void jobs_doNothing_whenNodeOwnsNoShards() {
+        when(shardLeases.ownedShards()).thenReturn(Set.of());
+
+        scheduler.runDailyReminderJob();
+        scheduler.runDueDateWarningJob();
+        scheduler.runAtRiskAlertJob();
+
+        verifyNoInteractions(userRepository, assignmentRepository, outbox);
     }
 
     // -------------------------
     // Helpers
     // -------------------------
 
+    private AssignmentAlertLedger stubAtRiskLedger(Assignment assignment, PanicStatus status, LocalDate evaluatedOn,
+                                                   PanicStatus notifiedStatus, Duration notifiedAgo) {
+        AssignmentAlertLedger ledger = AssignmentAlertLedger.builder()
+                .assignmentId(assignment.getId())
+                .userId(userId)
+                .status(status)
+                .evaluatedRevision(testUser.getPlanRevision())
+                .evaluatedOn(evaluatedOn)
+                .notifiedStatus(notifiedStatus)
+                .notifiedAt(Instant.now().minus(notifiedAgo))
+                .build();
+        when(userRepository.findAtRiskAlertRecipients(any(), any(), any()))
+                .thenReturn(List.of(recipient(testUser)));
+        when(assignmentRepository.findAllByUserIdInOrderByDueDateAsc(List.of(userId)))
+                .thenReturn(List.of(assignment));
+        when(alertLedgerRepository.findAllByUserIdIn(List.of(userId))).thenReturn(List.of(ledger));
+        return ledger;
+    }
+
+    private static NotificationRecipient recipient(User user) {
+        return new NotificationRecipient(user.getId(), user.getTimezone(), user.getDailyReminderTime(),
+                user.getDailyReminderNextFireAt(), user.getDueDateWarningDaysBefore(), user.getPlanRevision());
+    }
+
+    private void verifySent(String titleFragment) {
+        verifySent(titleFragment, "");
+    }
+
+    /**
+     * Verifies exactly one push was queued for the test device token with the given title and body fragments.
+     */
+    private void verifySent(String titleFragment, String bodyFragment) {
+        verify(outbox).enqueue(argThat(messages -> messages.size() == 1
+                && messages.get(0).getUserId().equals(userId)
+                && messages.get(0).getDeviceToken().equals("test-fcm-token")
+                && messages.get(0).getTitle().contains(titleFragment)
+                && messages.get(0).getBody().contains(bodyFragment)));
+    }
+
+    private void stubAtRiskPage(Assignment assignment, Task task) {
+        when(userRepository.findAtRiskAlertRecipients(any(), any(), any()))
+                .thenReturn(List.of(recipient(testUser)));
+        when(assignmentRepository.findAllByUserIdInOrderByDueDateAsc(List.of(userId)))
+                .thenReturn(List.of(assignment));
+        when(taskRepository.findAllByAssignmentIdIn(List.of(assignment.getId())))
+                .thenReturn(List.of(task));
+    }
+
     /**
      * Builds a test assignment for a given user and due date. By Claude
      */
@@ -0,0 +1,133 @@
+package com.applicationplanner.api.notification;
+
+import com.applicationplanner.api.model.NotificationShardLease;
+import com.applicationplanner.api.repository.NotificationNodeRepository;
+import com.applicationplanner.api.repository.NotificationShardLeaseRepository;
+import com.applicationplanner.api.util.NotificationShards;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.UnexpectedRollbackException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@SpringBootTest
+@Transactional
+class ShardLeaseManagerTest {
+
+    @Autowired private NotificationShardLeaseRepository leaseRepository;
+    @Autowired private NotificationNodeRepository nodeRepository;
+    @Autowired private TransactionTemplate transactions;
+
+    private final Instant t0 = Instant.now();
+
+    @BeforeEach
+    void seedShards() {
+        leaseRepository.saveAll(IntStream.range(0, NotificationShards.COUNT)
+                .mapToObj(i -> new NotificationShardLease(i, null, null))
+                .toList());
+    }
+
+    @Test
+    void singleNode_takesEveryShard_butOnlyActsOnThemAfterCommit() {
+        ShardLeaseManager node = node();
+
+        node.rebalance(t0);
+
+        assertEquals(NotificationShards.ALL, dbOwned(node));
+        assertTrue(node.ownedShards().isEmpty(), "claim not committed yet");
+
+        for (TransactionSynchronization s : TransactionSynchronizationManager.getSynchronizations()) {
+            s.afterCommit();
+        }
+        assertEquals(NotificationShards.ALL, node.ownedShards());
+    }
+
+    @Test
+    void joiningNode_getsHalf_afterTheFirstReleases() {
+        ShardLeaseManager a = node();
+        ShardLeaseManager b = node();
+
+        a.rebalance(t0);
+        b.rebalance(t0.plusSeconds(1));           // nothing free yet
+        assertTrue(dbOwned(b).isEmpty());
+
+        a.rebalance(t0.plusSeconds(2));           // sees two live nodes, releases down to 32
+        b.rebalance(t0.plusSeconds(3));
+
+        assertEquals(32, dbOwned(a).size());
+        assertEquals(32, dbOwned(b).size());
+        assertDisjointAndComplete(dbOwned(a), dbOwned(b));
+    }
+
+    @Test
+    void deadNode_shardsAreTakenOver_afterLeaseExpiry() {
+        ShardLeaseManager a = node();
+        ShardLeaseManager b = node();
+        a.rebalance(t0);
+        b.rebalance(t0);
+        a.rebalance(t0);
+        b.rebalance(t0);
+        assertEquals(32, dbOwned(b).size());
+
+        // a stops heartbeating; before its leases lapse b may not take them
+        b.rebalance(t0.plusSeconds(10));
+        assertEquals(32, dbOwned(b).size());
+
+        b.rebalance(t0.plus(Duration.ofSeconds(41)));
+        assertEquals(NotificationShards.ALL, dbOwned(b));
+    }
+
+    @Test
+    void disabled_ownsEverythingWithoutLeasing() {
+        ShardLeaseManager solo = new ShardLeaseManager(leaseRepository, nodeRepository, transactions, false, 30);
+
+        solo.heartbeat();
+
+        assertEquals(NotificationShards.ALL, solo.ownedShards());
+        assertTrue(dbOwned(solo).isEmpty());
+    }
+
+    @Test
+    void heartbeat_logsAFailedCommit_insteadOfThrowing() {
+        PlatformTransactionManager failingCommit = mock(PlatformTransactionManager.class);
+        doThrow(new UnexpectedRollbackException("rolled back")).when(failingCommit).commit(any());
+        ShardLeaseManager node = new ShardLeaseManager(
+                leaseRepository, nodeRepository, new TransactionTemplate(failingCommit), true, 30);
+
+        assertDoesNotThrow(node::heartbeat);
+        verify(failingCommit).commit(any());
+    }
+
+    private Set<Integer> dbOwned(ShardLeaseManager node) {
+        return leaseRepository.findAllByOwnerOrderByShardAsc(node.nodeId()).stream()
+                .map(NotificationShardLease::getShard)
+                .collect(Collectors.toSet());
+    }
+
+    private ShardLeaseManager node() {
+        return new ShardLeaseManager(leaseRepository, nodeRepository, transactions, true, 30);
+    }
+
+    private static void assertDisjointAndComplete(Set<Integer> a, Set<Integer> b) {
+        Set<Integer> union = new HashSet<>(a);
+        union.addAll(b);
+        assertEquals(a.size() + b.size(), union.size());
+        assertEquals(NotificationShards.ALL, union);
+    }
+}
@@ -0,0 +1,72 @@
+package com.applicationplanner.api.planner;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CapacityLedgerTest {
+
+    private final LocalDate TODAY = LocalDate.of(2025, 6, 2); // Monday
+    private final int[] WEEKDAYS_ONLY = {2, 2, 2, 2, 2, 0, 0};
+
+    @Test
+    void open_seedsEachDayFromWeeklyPattern() {
+        CapacityLedger ledger = CapacityLedger.open(TODAY, TODAY.plusDays(13), WEEKDAYS_ONLY);
+
+        assertEquals(14, ledger.length());
+        assertEquals(2, ledger.remaining(0));
+        assertEquals(0, ledger.remaining(5)); // Saturday
+        assertEquals(0, ledger.remaining(14)); // past the horizon
+    }
+
+    @Test
+    void nextOpen_skipsWeekendsAndUsedUpDays() {
+        CapacityLedger ledger = CapacityLedger.open(TODAY, TODAY.plusDays(13), WEEKDAYS_ONLY);
+
+        assertEquals(7, ledger.nextOpen(5));
+
+        for (int d = 0; d < 5; d++) ledger.take(d, 2);
+        assertEquals(7, ledger.nextOpen(0));
+
+        ledger.take(7, 1);
+        assertEquals(7, ledger.nextOpen(0)); // still one hour left on Monday
+    }
+
+    @Test
+    void nextOpen_returnsLengthWhenNothingLeft() {
+        CapacityLedger ledger = CapacityLedger.open(TODAY, TODAY.plusDays(4), WEEKDAYS_ONLY);
+        for (int d = 0; d < 5; d++) ledger.take(d, 2);
+
+        assertEquals(ledger.length(), ledger.nextOpen(0));
+    }
+
+    @Test
+    void giveBack_reopensDays() {
+        CapacityLedger ledger = CapacityLedger.open(TODAY, TODAY.plusDays(4), WEEKDAYS_ONLY);
+
+        ledger.beginRun();
+        ledger.take(0, 2);
+        ledger.take(1, 2);
+        int[] taken = ledger.endRun();
+        assertEquals(2, ledger.nextOpen(0));
+
+        ledger.giveBack(taken);
+
+        assertEquals(0, ledger.nextOpen(0));
+        assertEquals(2, ledger.remaining(1));
+    }
+
+    @Test
+    void extendTo_addsFreshDaysAfterFullOnes() {
+        CapacityLedger ledger = CapacityLedger.open(TODAY, TODAY.plusDays(4), WEEKDAYS_ONLY);
+        for (int d = 0; d < 5; d++) ledger.take(d, 2);
+        assertEquals(5, ledger.nextOpen(0));
+
+        ledger.extendTo(TODAY.plusDays(9));
+
+        assertEquals(7, ledger.nextOpen(0));
+        assertEquals(TODAY.plusDays(9), ledger.lastDay());
+    }
+}
@@ -0,0 +1,49 @@
+package com.applicationplanner.api.planner;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EffortByDayTest {
+
+    private final LocalDate TODAY = LocalDate.of(2025, 6, 2);
+
+    @Test
+    void sumThrough_isInclusiveAndIgnoresOutOfRangeDays() {
+        EffortByDay effort = new EffortByDay(TODAY, TODAY.plusDays(9));
+
+        effort.add(TODAY, 2);
+        effort.add(TODAY.plusDays(3), 3);
+        effort.add(TODAY.minusDays(1), 50);   // already past
+        effort.add(TODAY.plusDays(10), 50);   // beyond the horizon
+
+        assertEquals(0, effort.sumThrough(TODAY.minusDays(1)));
+        assertEquals(2, effort.sumThrough(TODAY));
+        assertEquals(2, effort.sumThrough(TODAY.plusDays(2)));
+        assertEquals(5, effort.sumThrough(TODAY.plusDays(3)));
+        assertEquals(5, effort.sumThrough(TODAY.plusDays(40)));
+    }
+
+    @Test
+    void sumThrough_matchesNaiveScan() {
+        Random rnd = new Random(11);
+        int days = 60;
+        int[] perDay = new int[days];
+        EffortByDay effort = new EffortByDay(TODAY, TODAY.plusDays(days - 1));
+
+        for (int step = 0; step < 500; step++) {
+            int d = rnd.nextInt(days);
+            int h = rnd.nextInt(5);
+            perDay[d] += h;
+            effort.add(TODAY.plusDays(d), h);
+
+            int q = rnd.nextInt(days);
+            int expected = 0;
+            for (int i = 0; i <= q; i++) expected += perDay[i];
+            assertEquals(expected, effort.sumThrough(TODAY.plusDays(q)));
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.applicationplanner.api.planner;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlanViewCacheTest {
+
+    private final LocalDate TODAY = LocalDate.of(2025, 6, 2);
+    private final UUID USER = UUID.randomUUID();
+    private final PlanViewCache.CachedPlan BODY = new PlanViewCache.CachedPlan(3, List.of());
+
+    @Test
+    void get_hitsOnlyForSameRevisionAndDay() {
+        PlanViewCache cache = new PlanViewCache(10);
+        cache.put(USER, TODAY, BODY);
+
+        assertSame(BODY, cache.get(USER, 3, TODAY));
+        assertNull(cache.get(USER, 3, TODAY.plusDays(1)));
+    }
+
+    @Test
+    void get_afterRevisionMovedElsewhere_misses() {
+        PlanViewCache cache = new PlanViewCache(10);
+        cache.put(USER, TODAY, BODY);
+
+        // a write committed on another instance: nothing invalidated here, but the row moved on
+        assertNull(cache.get(USER, 4, TODAY));
+    }
+
+    @Test
+    void put_olderRevision_doesNotReplaceNewer() {
+        PlanViewCache cache = new PlanViewCache(10);
+        PlanViewCache.CachedPlan newer = new PlanViewCache.CachedPlan(4, List.of());
+
+        cache.put(USER, TODAY, newer);
+        cache.put(USER, TODAY, BODY); // a slower reader that loaded before the write
+
+        assertSame(newer, cache.get(USER, 4, TODAY));
+    }
+
+    @Test
+    void invalidate_dropsTheEntry() {
+        PlanViewCache cache = new PlanViewCache(10);
+        cache.put(USER, TODAY, BODY);
+
+        cache.invalidate(USER);
+
+        assertNull(cache.get(USER, 3, TODAY));
+    }
+
+    @Test
+    void put_evictsLeastRecentlyUsedUser() {
+        PlanViewCache cache = new PlanViewCache(1);
+        UUID other = UUID.randomUUID();
+
+        cache.put(USER, TODAY, BODY);
+        cache.put(other, TODAY, BODY);
+
+        assertNull(cache.get(USER, 3, TODAY));
+        assertSame(BODY, cache.get(other, 3, TODAY));
+    }
+}
@@ -0,0 +1,64 @@
+package com.applicationplanner.api.planner;
+
+import com.applicationplanner.api.model.Assignment;
+import com.applicationplanner.api.model.Task;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlanningSnapshotTest {
+
+    private final LocalDate TODAY = LocalDate.of(2025, 6, 2);
+
+    @Test
+    void of_ordersAssignmentsByDueThenCreation_andTasksByOrderIndex() {
+        Assignment later = assignment(TODAY.plusDays(9), Instant.ofEpochSecond(10), null);
+        Assignment newer = assignment(TODAY.plusDays(5), Instant.ofEpochSecond(20), null);
+        Assignment older = assignment(TODAY.plusDays(5), Instant.ofEpochSecond(5), TODAY.plusDays(2));
+
+        Task second = task(older, 1);
+        Task first = task(older, 0);
+
+        PlanningSnapshot snapshot = PlanningSnapshot.of(TODAY, List.of(later, newer, older), List.of(second, first));
+
+        assertEquals(List.of(older, newer, later), snapshot.assignments());
+        assertEquals(List.of(first, second), snapshot.tasksOf(older.getId()));
+        assertTrue(snapshot.tasksOf(later.getId()).isEmpty());
+        assertSame(second, snapshot.task(second.getId()));
+        assertSame(newer, snapshot.assignment(newer.getId()));
+    }
+
+    @Test
+    void effectiveStart_isFutureStartDateOrToday() {
+        Assignment future = assignment(TODAY.plusDays(9), null, TODAY.plusDays(3));
+        Assignment past = assignment(TODAY.plusDays(9), null, TODAY.minusDays(3));
+
+        PlanningSnapshot snapshot = PlanningSnapshot.of(TODAY, List.of(future, past), List.of());
+
+        assertEquals(TODAY.plusDays(3), snapshot.effectiveStart(future.getId()));
+        assertEquals(TODAY, snapshot.effectiveStart(past.getId()));
+        assertEquals(TODAY, snapshot.effectiveStart(UUID.randomUUID()));
+    }
+
+    private Assignment assignment(LocalDate due, Instant createdAt, LocalDate start) {
+        Assignment a = new Assignment();
+        a.setId(UUID.randomUUID());
+        a.setDueDate(due);
+        a.setCreatedAt(createdAt);
+        a.setStartDate(start);
+        return a;
+    }
+
+    private Task task(Assignment a, int orderIndex) {
+        Task t = new Task();
+        t.setId(UUID.randomUUID());
+        t.setAssignmentId(a.getId());
+        t.setOrderIndex(orderIndex);
+        return t;
+    }
+}
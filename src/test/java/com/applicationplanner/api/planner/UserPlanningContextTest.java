@@ -0,0 +1,117 @@
+package com.applicationplanner.api.planner;
+
+import com.applicationplanner.api.model.Assignment;
+import com.applicationplanner.api.model.Task;
+import com.applicationplanner.api.model.User;
+import com.applicationplanner.api.repository.TaskRepository;
+import com.applicationplanner.api.repository.UserRepository;
+import com.applicationplanner.api.service.PlanningOrchestratorService;
+import com.applicationplanner.api.util.WithMockUserId;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.transaction.Transactional;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.webmvc.test.autoconfigure.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Counts the queries a request runs, via Hibernate statistics, to check that the user's
+ * availability and assignment ownership are each read once per request.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc(addFilters = false)
+@Transactional
+class UserPlanningContextTest {
+
+    private static final String AVAILABILITY_QUERY = "FROM Availability";
+    private static final String OWNED_IDS_QUERY = "select a.id from Assignment a where a.userId";
+    private static final String OWNED_ASSIGNMENT_QUERY = "a.id = :id";
+
+    @Autowired private MockMvc mockMvc;
+    @Autowired private UserRepository userRepository;
+    @Autowired private TaskRepository taskRepository;
+    @Autowired private PlanningOrchestratorService orchestrator;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setup() {
+        userRepository.save(User.builder()
+                .id(WithMockUserId.TEST_USER_ID)
+                .email("test@test.com")
+                .displayName("Test User")
+                .build());
+        WithMockUserId.set();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @AfterEach
+    void clearAuth() {
+        WithMockUserId.clear();
+    }
+
+    @Test
+    void setAvailability_readsTheAvailabilityRowOnce() throws Exception {
+        statistics.clear();
+
+        mockMvc.perform(put("/availability")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"monHours\":2,\"tueHours\":2,\"wedHours\":2,\"thuHours\":2,\"friHours\":2,\"satHours\":4,\"sunHours\":2}"))
+                .andExpect(status().isOk());
+
+        // applying the change and the replan both need it; this used to be two reads
+        assertEquals(1, executions(AVAILABILITY_QUERY));
+    }
+
+    @Test
+    void batchOfTaskEdits_checksOwnershipOnce() throws Exception {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        Assignment a = new Assignment();
+        a.setTitle("Essay");
+        a.setSubject("Math");
+        a.setDueDate(today.plusDays(10));
+        a = orchestrator.createAssignmentAndPlan(a, today);
+
+        List<Task> tasks = taskRepository.findByAssignmentId(a.getId());
+        assertTrue(tasks.size() >= 3);
+        String ops = tasks.stream().limit(3)
+                .map(t -> "{\"type\":\"TOGGLE\",\"assignmentId\":\"" + t.getAssignmentId() + "\",\"taskId\":\"" + t.getId() + "\"}")
+                .collect(Collectors.joining(","));
+        statistics.clear();
+
+        mockMvc.perform(post("/plan/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"operations\":[" + ops + "]}"))
+                .andExpect(status().isOk());
+
+        // one id list for the request instead of one owned-assignment lookup per edit
+        assertEquals(1, executions(OWNED_IDS_QUERY));
+        assertEquals(0, executions(OWNED_ASSIGNMENT_QUERY));
+        assertEquals(1, executions(AVAILABILITY_QUERY));
+    }
+
+    private long executions(String queryFragment) {
+        return Arrays.stream(statistics.getQueries())
+                .filter(q -> q.contains(queryFragment))
+                .mapToLong(q -> statistics.getQueryStatistics(q).getExecutionCount())
+                .sum();
+    }
+}
@@ -0,0 +1,112 @@
+package com.applicationplanner.api.service;
+
+import com.applicationplanner.api.model.Assignment;
+import com.applicationplanner.api.model.Task;
+import com.applicationplanner.api.model.User;
+import com.applicationplanner.api.record.PlanDelta;
+import com.applicationplanner.api.repository.UserRepository;
+import com.applicationplanner.api.util.WithMockUserId;
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@Transactional
+class PlanChangesTest {
+
+    @Autowired
+    private PlanningOrchestratorService orchestrator;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final LocalDate today = LocalDate.of(2026, 2, 9);
+
+    @BeforeEach
+    void setupAuth() {
+        userRepository.save(User.builder()
+                .id(WithMockUserId.TEST_USER_ID)
+                .email("test@test.com")
+                .displayName("Test User")
+                .build());
+
+        WithMockUserId.set();
+    }
+
+    @AfterEach
+    void clearAuth() {
+        WithMockUserId.clear();
+    }
+
+    @Test
+    void create_reportsAssignmentAndAllItsTasks() {
+        Assignment saved = create("Essay", today.plusDays(10));
+
+        PlanDelta delta = orchestrator.getPlanChanges(0, today);
+
+        assertFalse(delta.full());
+        assertEquals(1, delta.revision());
+        assertEquals(List.of(saved.getId()), delta.assignments().stream().map(v -> v.assignment().getId()).toList());
+        assertEquals(delta.assignments().get(0).tasks().size(), delta.tasks().size());
+    }
+
+    @Test
+    void toggle_reportsOnlyThatTask_andSummariesFromItsAssignmentOn() {
+        Assignment first = create("Essay", today.plusDays(10));
+        Assignment second = create("Report", today.plusDays(20));
+        long since = orchestrator.getPlanSnapshot(today).revision();
+
+        Task task = orchestrator.getPlanView(today).get(1).tasks().get(0);
+        orchestrator.toggleTaskDoneAndPlan(second.getId(), task.getId(), today);
+
+        PlanDelta delta = orchestrator.getPlanChanges(since, today);
+
+        assertTrue(delta.tasks().stream().anyMatch(t -> t.getId().equals(task.getId()) && t.isDone()));
+        assertTrue(delta.tasks().stream().noneMatch(t -> t.getAssignmentId().equals(first.getId())));
+        assertEquals(List.of(second.getId()), delta.assignments().stream().map(v -> v.assignment().getId()).toList());
+    }
+
+    @Test
+    void remove_reportsDeletedIds() {
+        Assignment saved = create("Essay", today.plusDays(10));
+        List<Task> tasks = orchestrator.getPlanView(today).get(0).tasks();
+        long since = orchestrator.getPlanSnapshot(today).revision();
+
+        orchestrator.removeAssignment(saved.getId(), today);
+
+        PlanDelta delta = orchestrator.getPlanChanges(since, today);
+
+        assertEquals(List.of(saved.getId()), delta.deletedAssignmentIds());
+        assertEquals(tasks.size(), delta.deletedTaskIds().size());
+        assertTrue(delta.tasks().isEmpty());
+    }
+
+    @Test
+    void upToDateClient_getsEmptyDelta_unknownRevision_getsFullReload() {
+        create("Essay", today.plusDays(10));
+        long revision = orchestrator.getPlanSnapshot(today).revision();
+
+        PlanDelta upToDate = orchestrator.getPlanChanges(revision, today);
+        assertFalse(upToDate.full());
+        assertTrue(upToDate.assignments().isEmpty() && upToDate.tasks().isEmpty());
+
+        assertTrue(orchestrator.getPlanChanges(revision + 5, today).full());
+        assertTrue(orchestrator.getPlanChanges(-1, today).full());
+    }
+
+    private Assignment create(String title, LocalDate dueDate) {
+        Assignment a = new Assignment();
+        a.setTitle(title);
+        a.setSubject("Math");
+        a.setDueDate(dueDate);
+        return orchestrator.createAssignmentAndPlan(a, today);
+    }
+}
@@ -2,15 +2,21 @@ package com.applicationplanner.api.service;
 
 import com.applicationplanner.api.model.Availability;
 import com.applicationplanner.api.model.Task;
+import com.applicationplanner.api.planner.IncrementalPlan;
+import com.applicationplanner.api.planner.PlanCheckpoint;
 import com.applicationplanner.api.service.impl.PlannerServiceImpl;
 import org.junit.jupiter.api.Test;
 
 import com.applicationplanner.api.enums.PanicStatus;
+import com.applicationplanner.api.enums.UnscheduledReason;
 import com.applicationplanner.api.model.Assignment;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.UUID;
 
 import static org.hibernate.validator.internal.util.Contracts.assertNotNull;
@@ -136,8 +142,168 @@ class PlannerServiceImplTest {
         assertTrue(result.get(a.getId()).get(0).isUnscheduled());
     }
 
+    @Test
+    void globalPlan_longHorizonStartDate_schedulesInsideWindow() {
+        Assignment a = assignmentDue(TODAY.plusDays(200));
+        LocalDate start = TODAY.plusDays(150);
+        Map<UUID, List<Task>> tasks = defaultTasks(List.of(a), 3);
+
+        Map<UUID, List<Task>> result = planner.buildGlobalPlan(
+                List.of(a), tasks, uniformAvailability(1), TODAY, Map.of(a.getId(), start)
+        );
+
+        for (Task t : result.get(a.getId())) {
+            assertFalse(t.isUnscheduled());
+            assertFalse(t.getTargetDate().isBefore(start));
+            assertTrue(t.getTargetDate().isBefore(a.getDueDate()));
+        }
+    }
+
+    @Test
+    void globalPlan_noAvailableDaysInWindow_isWindowExpired() {
+        Assignment a = assignmentDue(TODAY.plusDays(30));
+        Map<UUID, List<Task>> tasks = defaultTasks(List.of(a), 2);
+
+        Map<UUID, List<Task>> result = planner.buildGlobalPlan(
+                List.of(a), tasks, uniformAvailability(0), TODAY, startsAtToday(List.of(a))
+        );
+
+        assertEquals(UnscheduledReason.WINDOW_EXPIRED, result.get(a.getId()).get(0).getUnscheduledReason());
+        assertEquals(UnscheduledReason.CHAIN_BROKEN, result.get(a.getId()).get(1).getUnscheduledReason());
+    }
+
+    // --- buildGlobalPlanIncremental ---
+
+    @Test
+    void incremental_unchangedInputs_reusesWholePlan() {
+        Availability avail = uniformAvailability(3);
+        List<Assignment> assignments = List.of(
+                assignmentDue(TODAY.plusDays(4)),
+                assignmentDue(TODAY.plusDays(9))
+        );
+        Map<UUID, List<Task>> tasks = defaultTasks(assignments, 2);
+        Map<UUID, LocalDate> starts = startsAtToday(assignments);
+
+        IncrementalPlan first = planner.buildGlobalPlanIncremental(assignments, tasks, avail, TODAY, starts, null);
+        IncrementalPlan second = planner.buildGlobalPlanIncremental(assignments, tasks, avail, TODAY, starts, first.checkpoint());
+
+        assertEquals(0, first.replayedFrom());
+        assertEquals(assignments.size(), second.replayedFrom());
+        assertSamePlan(first.plan(), second.plan());
+    }
+
+    @Test
+    void incremental_replaysFromFirstChangedAssignment() {
+        Availability avail = uniformAvailability(2);
+        Assignment early = assignmentDue(TODAY.plusDays(3));
+        Assignment middle = assignmentDue(TODAY.plusDays(6));
+        Assignment late = assignmentDue(TODAY.plusDays(10));
+        List<Assignment> assignments = List.of(late, early, middle);
+        Map<UUID, List<Task>> tasks = defaultTasks(assignments, 1);
+        Map<UUID, LocalDate> starts = startsAtToday(assignments);
+
+        IncrementalPlan first = planner.buildGlobalPlanIncremental(assignments, tasks, avail, TODAY, starts, null);
+
+        tasks.get(middle.getId()).get(0).setDone(true);
+        IncrementalPlan second = planner.buildGlobalPlanIncremental(assignments, tasks, avail, TODAY, starts, first.checkpoint());
+
+        assertEquals(1, second.replayedFrom());
+        assertSamePlan(planner.buildGlobalPlan(assignments, tasks, avail, TODAY, starts), second.plan());
+    }
+
+    @Test
+    void incremental_matchesFullRebuild_acrossRandomMutations() {
+        Random random = new Random(42);
+        Availability avail = uniformAvailability(3);
+        avail.setSatHours(0);
+
+        List<Assignment> assignments = new ArrayList<>();
+        for (int i = 0; i < 6; i++) assignments.add(assignmentDue(TODAY.plusDays(2 + random.nextInt(20))));
+        Map<UUID, List<Task>> tasks = defaultTasks(assignments, 4);
+        Map<UUID, LocalDate> starts = startsAtToday(assignments);
+
+        PlanCheckpoint checkpoint = null;
+        for (int step = 0; step < 200; step++) {
+            Assignment target = assignments.get(random.nextInt(assignments.size()));
+            switch (random.nextInt(4)) {
+                case 0 -> {
+                    Task t = tasks.get(target.getId()).get(random.nextInt(4));
+                    t.setDone(!t.isDone());
+                }
+                case 1 -> tasks.get(target.getId()).get(random.nextInt(4)).setEffortHours(random.nextInt(7));
+                case 2 -> target.setDueDate(TODAY.plusDays(1 + random.nextInt(30)));
+                default -> starts.put(target.getId(), TODAY.plusDays(random.nextInt(5)));
+            }
+
+            IncrementalPlan incremental = planner.buildGlobalPlanIncremental(
+                    assignments, tasks, avail, TODAY, starts, checkpoint
+            );
+            Map<UUID, List<Task>> full = planner.buildGlobalPlan(assignments, tasks, avail, TODAY, starts);
+
+            assertSamePlan(full, incremental.plan());
+            checkpoint = incremental.checkpoint();
+        }
+    }
+
+    @Test
+    void incremental_differentToday_replaysEverything() {
+        Availability avail = uniformAvailability(2);
+        List<Assignment> assignments = List.of(assignmentDue(TODAY.plusDays(5)));
+        Map<UUID, List<Task>> tasks = defaultTasks(assignments, 2);
+
+        IncrementalPlan first = planner.buildGlobalPlanIncremental(
+                assignments, tasks, avail, TODAY, startsAtToday(assignments), null
+        );
+
+        LocalDate tomorrow = TODAY.plusDays(1);
+        Map<UUID, LocalDate> starts = Map.of(assignments.get(0).getId(), tomorrow);
+        IncrementalPlan second = planner.buildGlobalPlanIncremental(
+                assignments, tasks, avail, tomorrow, starts, first.checkpoint()
+        );
+
+        assertEquals(0, second.replayedFrom());
+        assertSamePlan(planner.buildGlobalPlan(assignments, tasks, avail, tomorrow, starts), second.plan());
+    }
+
     // --- Helpers ---
 
+    private Map<UUID, List<Task>> defaultTasks(List<Assignment> assignments, int perAssignment) {
+        Map<UUID, List<Task>> tasks = new HashMap<>();
+        for (Assignment a : assignments) {
+            List<Task> list = new ArrayList<>();
+            for (int i = 0; i < perAssignment; i++) {
+                Task t = taskWithDate(null);
+                t.setAssignmentId(a.getId());
+                t.setOrderIndex(i);
+                t.setEffortHours(2);
+                list.add(t);
+            }
+            tasks.put(a.getId(), list);
+        }
+        return tasks;
+    }
+
+    private Map<UUID, LocalDate> startsAtToday(List<Assignment> assignments) {
+        Map<UUID, LocalDate> starts = new HashMap<>();
+        for (Assignment a : assignments) starts.put(a.getId(), TODAY);
+        return starts;
+    }
+
+    private void assertSamePlan(Map<UUID, List<Task>> expected, Map<UUID, List<Task>> actual) {
+        assertEquals(expected.keySet(), actual.keySet());
+        for (UUID id : expected.keySet()) {
+            List<Task> e = expected.get(id);
+            List<Task> a = actual.get(id);
+            assertEquals(e.size(), a.size());
+            for (int i = 0; i < e.size(); i++) {
+                assertEquals(e.get(i).getId(), a.get(i).getId());
+                assertEquals(e.get(i).getTargetDate(), a.get(i).getTargetDate());
+                assertEquals(e.get(i).isUnscheduled(), a.get(i).isUnscheduled());
+                assertEquals(e.get(i).getUnscheduledReason(), a.get(i).getUnscheduledReason());
+            }
+        }
+    }
+
     private Task taskWithDate(LocalDate date) {
         Task t = new Task();
         t.setId(UUID.randomUUID());
@@ -55,6 +55,24 @@ class PlanningOrchestratorDueDateTest {
         WithMockUserId.clear();
     }
 
+    @Test
+    void planRevision_advancesWithEveryPlanMutation() {
+        LocalDate today = LocalDate.of(2026, 2, 7);
+        assertEquals(0, orchestrator.getPlanSnapshot(today).revision());
+
+        Assignment assignment = new Assignment();
+        assignment.setTitle("Test");
+        assignment.setSubject("Math");
+        assignment.setDueDate(LocalDate.of(2026, 2, 15));
+        Assignment saved = orchestrator.createAssignmentAndPlan(assignment, today);
+
+        Assignment patch = new Assignment();
+        patch.setTitle("Renamed");
+        orchestrator.updateAssignmentAndPlan(saved.getId(), patch, today);
+
+        assertEquals(2, orchestrator.getPlanSnapshot(today).revision());
+    }
+
     @Test
     void whenDueDateMovedEarlier_tasksBeyondNewWindowAreUnscheduled() {
         LocalDate today = LocalDate.of(2026, 2, 7);
@@ -0,0 +1,210 @@
+package com.applicationplanner.api.service;
+
+import com.applicationplanner.api.model.Assignment;
+import com.applicationplanner.api.model.Availability;
+import com.applicationplanner.api.model.Task;
+import com.applicationplanner.api.planner.PlanCheckpointStore;
+import com.applicationplanner.api.planner.PlanViewCache;
+import com.applicationplanner.api.planner.UserPlanningContext;
+import com.applicationplanner.api.record.PlanEdit;
+import com.applicationplanner.api.record.PlanWriteStats;
+import com.applicationplanner.api.repository.AssignmentRepository;
+import com.applicationplanner.api.repository.AvailabilityRepository;
+import com.applicationplanner.api.repository.PlanChangeRepository;
+import com.applicationplanner.api.repository.TaskRepository;
+import com.applicationplanner.api.repository.UserRepository;
+import com.applicationplanner.api.service.impl.PlannerServiceImpl;
+import com.applicationplanner.api.service.impl.PlanningOrchestratorServiceImpl;
+import com.applicationplanner.api.util.WithMockUserId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PlanningOrchestratorMutationTest {
+
+    @Mock private AssignmentRepository assignmentRepository;
+    @Mock private TaskRepository taskRepository;
+    @Mock private AvailabilityRepository availabilityRepository;
+    @Mock private UserRepository userRepository;
+    @Mock private PlanChangeRepository planChangeRepository;
+
+    private PlanningOrchestratorServiceImpl orchestrator;
+
+    private final LocalDate today = LocalDate.of(2026, 2, 9);
+    private Assignment assignment;
+    private Task task;
+
+    @BeforeEach
+    void setup() {
+        WithMockUserId.set();
+
+        orchestrator = new PlanningOrchestratorServiceImpl(
+                assignmentRepository,
+                taskRepository,
+                availabilityRepository,
+                userRepository,
+                planChangeRepository,
+                new PlannerServiceImpl(),
+                new PlanCheckpointStore(10),
+                new PlanViewCache(10),
+                new UserPlanningContext(userRepository, availabilityRepository, assignmentRepository)
+        );
+
+        assignment = new Assignment();
+        assignment.setId(UUID.randomUUID());
+        assignment.setUserId(WithMockUserId.TEST_USER_ID);
+        assignment.setDueDate(today.plusDays(7));
+
+        task = new Task();
+        task.setId(UUID.randomUUID());
+        task.setAssignmentId(assignment.getId());
+        task.setTitle("Draft");
+        task.setEffortHours(2);
+
+        lenient().when(assignmentRepository.findByIdAndUserId(assignment.getId(), WithMockUserId.TEST_USER_ID))
+                .thenReturn(Optional.of(assignment));
+        lenient().when(assignmentRepository.findIdsByUserId(WithMockUserId.TEST_USER_ID))
+                .thenReturn(List.of(assignment.getId()));
+        lenient().when(taskRepository.findById(task.getId())).thenReturn(Optional.of(task));
+    }
+
+    @AfterEach
+    void teardown() {
+        WithMockUserId.clear();
+    }
+
+    @Test
+    void titleChange_persistsRowWithoutReplanning() {
+        orchestrator.updateTaskTitleAndPlan(assignment.getId(), task.getId(), "  Outline  ", today);
+
+        assertEquals("Outline", task.getTitle());
+        verify(taskRepository).save(task);
+        verify(userRepository).incrementPlanRevision(WithMockUserId.TEST_USER_ID);
+        verify(assignmentRepository, never()).findAllByUserIdOrderByDueDateAsc(any());
+        verify(taskRepository, never()).findAllByAssignmentIdIn(anyList());
+    }
+
+    @Test
+    void effortChangeOnDoneTask_isPlanNeutral() {
+        task.setDone(true);
+
+        orchestrator.updateTaskEffortAndPlan(assignment.getId(), task.getId(), 5, today);
+
+        assertEquals(5, task.getEffortHours());
+        verify(taskRepository, never()).findAllByAssignmentIdIn(anyList());
+    }
+
+    @Test
+    void effortUnchanged_leavesPlanRevisionAlone() {
+        orchestrator.updateTaskEffortAndPlan(assignment.getId(), task.getId(), 2, today);
+
+        verify(userRepository, never()).incrementPlanRevision(any());
+        verify(planChangeRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void effortChangeOnOpenTask_replans() {
+        stubReplanLoad();
+
+        orchestrator.updateTaskEffortAndPlan(assignment.getId(), task.getId(), 5, today);
+
+        verify(taskRepository).findAllByAssignmentIdIn(List.of(assignment.getId()));
+    }
+
+    @Test
+    void toggle_replans() {
+        stubReplanLoad();
+
+        orchestrator.toggleTaskDoneAndPlan(assignment.getId(), task.getId(), today);
+
+        verify(taskRepository).findAllByAssignmentIdIn(List.of(assignment.getId()));
+    }
+
+    @Test
+    void assignmentRename_isPlanNeutral() {
+        Assignment patch = new Assignment();
+        patch.setTitle("Renamed");
+        patch.setDueDate(assignment.getDueDate()); // same value, not a change
+
+        orchestrator.updateAssignmentAndPlan(assignment.getId(), patch, today);
+
+        assertEquals("Renamed", assignment.getTitle());
+        verify(assignmentRepository, never()).findAllByUserIdOrderByDueDateAsc(any());
+    }
+
+    @Test
+    void recompute_writesOnlyTasksWhoseScheduleChanged() {
+        stubReplanLoad();
+
+        PlanWriteStats first = orchestrator.recomputePlan(today);
+        PlanWriteStats second = orchestrator.recomputePlan(today);
+
+        assertEquals(1, first.tasksPlanned());
+        assertEquals(1, first.tasksWritten());
+        assertEquals(today, task.getTargetDate());
+        assertEquals(0, second.tasksWritten());
+        verify(taskRepository, times(1)).saveAll(anyList());
+        // a recompute that moved nothing leaves the plan revision (and clients' ETags) alone
+        verify(userRepository, times(1)).incrementPlanRevision(WithMockUserId.TEST_USER_ID);
+    }
+
+    @Test
+    void batch_appliesEditsInOrderAndReplansOnce() {
+        stubReplanLoad();
+
+        orchestrator.applyBatchAndPlan(List.of(
+                new PlanEdit.ToggleTask(assignment.getId(), task.getId()),
+                new PlanEdit.TaskEffort(assignment.getId(), task.getId(), 4),
+                new PlanEdit.ToggleTask(assignment.getId(), task.getId()),
+                new PlanEdit.TaskTitle(assignment.getId(), task.getId(), "Final")
+        ), today);
+
+        assertEquals(4, task.getEffortHours());
+        assertEquals("Final", task.getTitle());
+        assertFalse(task.isDone());
+        verify(taskRepository, times(1)).findAllByAssignmentIdIn(List.of(assignment.getId()));
+    }
+
+    @Test
+    void batch_ofPlanNeutralEdits_skipsReplan() {
+        Assignment patch = new Assignment();
+        patch.setSubject("History");
+
+        orchestrator.applyBatchAndPlan(List.of(
+                new PlanEdit.TaskTitle(assignment.getId(), task.getId(), "Outline"),
+                new PlanEdit.AssignmentPatch(assignment.getId(), patch)
+        ), today);
+
+        assertEquals("History", assignment.getSubject());
+        verify(taskRepository, never()).findAllByAssignmentIdIn(anyList());
+    }
+
+    private void stubReplanLoad() {
+        when(assignmentRepository.findAllByUserIdOrderByDueDateAsc(WithMockUserId.TEST_USER_ID))
+                .thenReturn(new ArrayList<>(List.of(assignment)));
+        when(availabilityRepository.findByUserId(WithMockUserId.TEST_USER_ID))
+                .thenReturn(Optional.of(Availability.getAvailability()));
+        when(taskRepository.findAllByAssignmentIdIn(List.of(assignment.getId())))
+                .thenReturn(List.of(task));
+    }
+}
@@ -0,0 +1,117 @@
+package com.applicationplanner.api.util;
+
+import com.applicationplanner.api.model.User;
+import com.applicationplanner.api.planner.UserPlanningContext;
+import com.applicationplanner.api.record.TokenPrincipal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TimezoneResolverTest {
+
+    // 25 hours apart, so "today" always differs between them
+    private static final String EAST = "Pacific/Kiritimati";
+    private static final String WEST = "Pacific/Pago_Pago";
+
+    private final UUID userId = UUID.randomUUID();
+    private final UserPlanningContext context = mock(UserPlanningContext.class);
+    private final MutableClock clock = new MutableClock(Instant.parse("2026-03-01T10:00:00Z"));
+    private final TimezoneResolver resolver = new TimezoneResolver(context, Duration.ofHours(1), 10, clock);
+
+    @AfterEach
+    void clearAuth() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void resolveToday_usesTokenClaim_withoutReadingTheUser() {
+        authenticate(EAST);
+
+        assertEquals(LocalDate.now(ZoneId.of(EAST)), resolver.resolveToday());
+        verifyNoInteractions(context);
+    }
+
+    @Test
+    void resolveToday_withoutClaim_readsTheUserOnce() {
+        authenticate(null);
+        when(context.user()).thenReturn(Optional.of(User.builder().id(userId).timezone(WEST).build()));
+
+        assertEquals(LocalDate.now(ZoneId.of(WEST)), resolver.resolveToday());
+        assertEquals(LocalDate.now(ZoneId.of(WEST)), resolver.resolveToday());
+        verify(context, times(1)).user();
+    }
+
+    @Test
+    void tokenClaim_winsOverACachedZone() {
+        // this instance cached WEST: once from a claim-less token's row read, once from a save
+        authenticate(null);
+        when(context.user()).thenReturn(Optional.of(User.builder().id(userId).timezone(WEST).build()));
+        resolver.resolveToday();
+        resolver.timezoneChanged(userId, WEST);
+
+        // the zone then changed to EAST through another instance, which reissued the token
+        authenticate(EAST);
+
+        assertEquals(LocalDate.now(ZoneId.of(EAST)), resolver.resolveToday());
+    }
+
+    @Test
+    void timezoneChanged_updatesClaimlessTokens_untilTheyCouldHaveExpired() {
+        authenticate(null);
+        when(context.user()).thenReturn(Optional.of(User.builder().id(userId).timezone(EAST).build()));
+        resolver.timezoneChanged(userId, WEST);
+
+        assertEquals(LocalDate.now(ZoneId.of(WEST)), resolver.resolveToday());
+        verifyNoInteractions(context);
+
+        clock.advance(Duration.ofHours(1).plusSeconds(1));
+        assertEquals(LocalDate.now(ZoneId.of(EAST)), resolver.resolveToday());
+    }
+
+    private void authenticate(String tzClaim) {
+        var auth = new UsernamePasswordAuthenticationToken(userId, null, List.of());
+        auth.setDetails(new TokenPrincipal(userId, tzClaim));
+        SecurityContextHolder.getContext().setAuthentication(auth);
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration d) {
+            now = now.plus(d);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.applicationplanner.api.util;
+
+import com.applicationplanner.api.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimezoneUtilTest {
+
+    @Test
+    void nextOccurrenceAfter_isLaterTodayOrTomorrow() {
+        Instant morning = Instant.parse("2025-06-02T06:00:00Z");
+
+        assertEquals(Instant.parse("2025-06-02T08:00:00Z"),
+                TimezoneUtil.nextOccurrenceAfter("08:00", "UTC", morning));
+        assertEquals(Instant.parse("2025-06-03T05:00:00Z"),
+                TimezoneUtil.nextOccurrenceAfter("05:00", "UTC", morning));
+        // exactly at the reminder time: the next one is tomorrow
+        assertEquals(Instant.parse("2025-06-03T06:00:00Z"),
+                TimezoneUtil.nextOccurrenceAfter("06:00", "UTC", morning));
+    }
+
+    @Test
+    void nextOccurrenceAfter_followsLocalTimeAcrossDst() {
+        // New York springs forward on 2025-03-09: 08:00 is UTC-5 before, UTC-4 after
+        assertEquals(Instant.parse("2025-03-09T12:00:00Z"),
+                TimezoneUtil.nextOccurrenceAfter("08:00", "America/New_York", Instant.parse("2025-03-08T13:30:00Z")));
+
+        // 02:30 doesn't exist that day; it fires just after the gap, at 03:30 EDT
+        assertEquals(Instant.parse("2025-03-09T07:30:00Z"),
+                TimezoneUtil.nextOccurrenceAfter("02:30", "America/New_York", Instant.parse("2025-03-09T05:00:00Z")));
+
+        // 01:30 happens twice on 2025-11-02; it fires once, at the earlier (EDT) offset
+        Instant first = TimezoneUtil.nextOccurrenceAfter("01:30", "America/New_York", Instant.parse("2025-11-02T04:00:00Z"));
+        assertEquals(Instant.parse("2025-11-02T05:30:00Z"), first);
+        assertEquals(Instant.parse("2025-11-03T06:30:00Z"),
+                TimezoneUtil.nextOccurrenceAfter("01:30", "America/New_York", first));
+    }
+
+    @Test
+    void nextOccurrenceAfter_fallsBackToUtcForUnknownZone() {
+        assertEquals(Instant.parse("2025-06-02T08:00:00Z"),
+                TimezoneUtil.nextOccurrenceAfter("08:00", "Not/AZone", Instant.parse("2025-06-02T06:00:00Z")));
+    }
+
+    @Test
+    void rescheduleDailyReminder_clearsWhenRemindersAreOff() {
+        User user = User.builder().timezone("Asia/Kolkata").dailyReminderTime("20:15").build();
+        Instant after = Instant.parse("2025-06-02T06:00:00Z");
+
+        user.rescheduleDailyReminder(after);
+        assertEquals(Instant.parse("2025-06-02T14:45:00Z"), user.getDailyReminderNextFireAt());
+
+        user.setDailyReminderEnabled(false);
+        user.rescheduleDailyReminder(after);
+        assertNull(user.getDailyReminderNextFireAt());
+    }
+}